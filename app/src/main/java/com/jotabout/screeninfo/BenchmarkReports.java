@@ -0,0 +1,62 @@
+package com.jotabout.screeninfo;
+
+/**
+ * ScreenInfo
+ *
+ * Display the screen configuration parameters for an Android device.
+ *
+ * Copyright (c) 2011 Michael J. Portuesi (http://www.jotabout.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Results of the benchmarks run during this session, kept in memory so
+ * they can be appended to the shared report.  Each benchmark owns one
+ * section, identified by its title; running it again replaces the section.
+ */
+public class BenchmarkReports {
+
+	private static final Map<String, String> sSections = new LinkedHashMap<String, String>();
+
+	/**
+	 * Store (or replace) the results of one benchmark.
+	 */
+	public static synchronized void put( String title, String text ) {
+		sSections.put( title, text );
+	}
+
+	/**
+	 * All benchmark results, as text, or an empty string if none were run.
+	 */
+	public static synchronized String text() {
+		StringBuilder sb = new StringBuilder();
+		for ( Map.Entry<String, String> section : sSections.entrySet() ) {
+			sb.append( "\n" ).append( section.getKey() ).append( "\n" )
+			  .append( section.getValue() );
+			if ( !section.getValue().endsWith( "\n" ) ) {
+				sb.append( "\n" );
+			}
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,142 @@
+package com.jotabout.screeninfo;
+
+/**
+ * ScreenInfo
+ *
+ * Display the screen configuration parameters for an Android device.
+ *
+ * Copyright (c) 2011 Michael J. Portuesi (http://www.jotabout.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Exact counts for an int-valued categorical field, such as a size class
+ * or density bucket.  Keys are kept sorted in parallel arrays, which suits
+ * the handful of distinct values these fields take.
+ *
+ * Counters merge by adding counts, so partial aggregates combine exactly.
+ * Not thread-safe.  Pure Java, so it can also be used off-device.
+ */
+public class CategoryCounter {
+
+	private int[] mKeys = new int[8];
+	private long[] mCounts = new long[8];
+	private int mSize;
+	private long mTotal;
+
+	//////////////////////////////////////////////////////////////////////////
+	// Public
+	//////////////////////////////////////////////////////////////////////////
+
+	public void add( int key ) {
+		add( key, 1 );
+	}
+
+	public void add( int key, long count ) {
+		int index = Arrays.binarySearch( mKeys, 0, mSize, key );
+		if ( index < 0 ) {
+			index = -index - 1;
+			if ( mSize == mKeys.length ) {
+				mKeys = Arrays.copyOf( mKeys, mSize * 2 );
+				mCounts = Arrays.copyOf( mCounts, mSize * 2 );
+			}
+			System.arraycopy( mKeys, index, mKeys, index + 1, mSize - index );
+			System.arraycopy( mCounts, index, mCounts, index + 1, mSize - index );
+			mKeys[index] = key;
+			mCounts[index] = 0;
+			mSize++;
+		}
+		mCounts[index] += count;
+		mTotal += count;
+	}
+
+	/**
+	 * Fold another counter into this one.  The other counter is unchanged.
+	 */
+	public void merge( CategoryCounter other ) {
+		for ( int i = 0; i < other.mSize; i++ ) {
+			add( other.mKeys[i], other.mCounts[i] );
+		}
+	}
+
+	public long count( int key ) {
+		int index = Arrays.binarySearch( mKeys, 0, mSize, key );
+		return index < 0 ? 0 : mCounts[index];
+	}
+
+	public long total() {
+		return mTotal;
+	}
+
+	/**
+	 * Number of distinct keys.
+	 */
+	public int size() {
+		return mSize;
+	}
+
+	/**
+	 * The i'th distinct key, in ascending order.
+	 */
+	public int keyAt( int i ) {
+		return mKeys[i];
+	}
+
+	public long countAt( int i ) {
+		return mCounts[i];
+	}
+
+	public void write( DataOutput out ) throws IOException {
+		out.writeInt( mSize );
+		for ( int i = 0; i < mSize; i++ ) {
+			out.writeInt( mKeys[i] );
+			out.writeLong( mCounts[i] );
+		}
+	}
+
+	public static CategoryCounter read( DataInput in ) throws IOException {
+		CategoryCounter counter = new CategoryCounter();
+		int size = in.readInt();
+		if ( size < 0 ) {
+			throw new IOException( "Bad counter size: " + size );
+		}
+		for ( int i = 0; i < size; i++ ) {
+			counter.add( in.readInt(), in.readLong() );
+		}
+		return counter;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for ( int i = 0; i < mSize; i++ ) {
+			if ( i > 0 ) {
+				sb.append( ", " );
+			}
+			sb.append( mKeys[i] ).append( '=' ).append( mCounts[i] );
+		}
+		return sb.toString();
+	}
+}
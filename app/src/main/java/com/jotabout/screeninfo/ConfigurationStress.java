@@ -0,0 +1,246 @@
+package com.jotabout.screeninfo;
+
+/**
+ * ScreenInfo
+ *
+ * Display the screen configuration parameters for an Android device.
+ *
+ * Copyright (c) 2011 Michael J. Portuesi (http://www.jotabout.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Locale;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.content.res.Configuration;
+
+/**
+ * On-device stress harness for configuration changes.
+ *
+ * Cycles through rotation, locale and font-scale changes, rebuilding a
+ * Screen (and its summary text) against a configuration context for each
+ * one, as the activity does when it is recreated.  Rebuild time and used
+ * heap are recorded every cycle, heap is also measured after a forced GC
+ * at the end of each window of cycles, and the snapshots from the first
+ * window are tracked weakly to detect anything that keeps them alive.
+ *
+ * The run fails if the median rebuild time of the last window of cycles
+ * grows past LATENCY_GROWTH times that of the first, if post-GC heap grows
+ * by more than HEAP_GROWTH_KB from the first window to the last, or if any
+ * early snapshot is still reachable at the end.
+ *
+ * This covers the snapshot path only.  Leaks through the activity itself
+ * (recreation, the about dialog, listeners) are covered by
+ * ScreenInfoRecreationTest, which recreates ScreenInfo under Robolectric.
+ * Requires API 17 (createConfigurationContext).
+ */
+@TargetApi(17)
+public class ConfigurationStress {
+
+	//////////////////////////////////////////////////////////////////////////
+	// Constants
+	//////////////////////////////////////////////////////////////////////////
+
+	public final static int DEFAULT_CYCLES = 2000;
+
+	final static double LATENCY_GROWTH = 1.5;
+	final static long LATENCY_SLACK_NANOS = 50000;
+	final static long HEAP_GROWTH_KB = 1024;
+
+	private final static int WINDOWS = 10;
+
+	final static Locale[] LOCALES = {
+		Locale.US, Locale.FRANCE, Locale.JAPAN, Locale.GERMANY, new Locale( "ar", "EG" ),
+	};
+	final static float[] FONT_SCALES = { 0.85f, 1.0f, 1.15f, 1.3f };
+
+	//////////////////////////////////////////////////////////////////////////
+	// Result
+	//////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Outcome of a stress run.
+	 */
+	public static class Result {
+		public int cycles;
+		public long firstWindowMedianNanos;
+		public long lastWindowMedianNanos;
+		public long maxNanos;
+		public long heapStartKb;
+		public long heapEndKb;
+		public long heapPeakKb;
+		public long[] heapWindowKb;
+		public int retainedSnapshots;
+		public String failure;
+
+		public boolean passed() {
+			return failure == null;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder();
+			sb.append( passed() ? "PASS" : "FAIL: " + failure )
+			  .append( " cycles=" ).append( cycles )
+			  .append( " first_median_us=" ).append( firstWindowMedianNanos / 1000 )
+			  .append( " last_median_us=" ).append( lastWindowMedianNanos / 1000 )
+			  .append( " max_us=" ).append( maxNanos / 1000 )
+			  .append( " heap_start_kb=" ).append( heapStartKb )
+			  .append( " heap_end_kb=" ).append( heapEndKb )
+			  .append( " heap_peak_kb=" ).append( heapPeakKb )
+			  .append( " heap_window_kb=" ).append( Arrays.toString( heapWindowKb ).replace( " ", "" ) )
+			  .append( " retained=" ).append( retainedSnapshots );
+			return sb.toString();
+		}
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// State
+	//////////////////////////////////////////////////////////////////////////
+
+	private final int mCycles;
+	private final int mWindow;
+
+	public ConfigurationStress( int cycles ) {
+		mWindow = Math.max( 1, cycles / WINDOWS );
+		mCycles = Math.max( cycles, mWindow * 2 );
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Public
+	//////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Run the configured number of cycles against the given base context.
+	 */
+	public Result run( Context base ) {
+		Result result = new Result();
+		result.cycles = mCycles;
+
+		long[] nanos = new long[mCycles];
+		long[] heapKb = new long[mCycles];
+		result.heapWindowKb = new long[( mCycles + mWindow - 1 ) / mWindow];
+		@SuppressWarnings("unchecked")
+		WeakReference<Screen>[] early = new WeakReference[mWindow];
+		Configuration baseConfig = base.getResources().getConfiguration();
+
+		result.heapStartKb = usedHeapKb();
+
+		for ( int i = 0; i < mCycles; i++ ) {
+			Context ctx = base.createConfigurationContext( variant( baseConfig, i ) );
+
+			long start = System.nanoTime();
+			Screen screen = new Screen( ctx );
+			screen.summaryText( ctx );
+			nanos[i] = System.nanoTime() - start;
+
+			if ( i < mWindow ) {
+				early[i] = new WeakReference<Screen>( screen );
+			}
+
+			// Raw every cycle (cheap), and after a GC at each window's end
+			heapKb[i] = currentHeapKb();
+			if ( ( i + 1 ) % mWindow == 0 || i + 1 == mCycles ) {
+				result.heapWindowKb[i / mWindow] = usedHeapKb();
+			}
+		}
+
+		result.heapEndKb = result.heapWindowKb[result.heapWindowKb.length - 1];
+		for ( long kb : heapKb ) {
+			result.heapPeakKb = Math.max( result.heapPeakKb, kb );
+		}
+		for ( WeakReference<Screen> ref : early ) {
+			if ( ref.get() != null ) {
+				result.retainedSnapshots++;
+			}
+		}
+
+		for ( long n : nanos ) {
+			result.maxNanos = Math.max( result.maxNanos, n );
+		}
+		result.firstWindowMedianNanos = median( nanos, 0, mWindow );
+		result.lastWindowMedianNanos = median( nanos, mCycles - mWindow, mCycles );
+
+		if ( result.retainedSnapshots > 0 ) {
+			result.failure = result.retainedSnapshots + " snapshots retained";
+		} else if ( result.heapEndKb - result.heapWindowKb[0] > HEAP_GROWTH_KB ) {
+			result.failure = "heap grew " + ( result.heapEndKb - result.heapWindowKb[0] ) + " KB";
+		} else if ( result.lastWindowMedianNanos >
+				result.firstWindowMedianNanos * LATENCY_GROWTH + LATENCY_SLACK_NANOS ) {
+			result.failure = "rebuild time grew";
+		}
+		return result;
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Private
+	//////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * The configuration for a given cycle: rotation flips every cycle,
+	 * while locale and font scale step through their lists at different
+	 * rates so that the combinations keep changing.  Also drives
+	 * ScreenInfoRecreationTest, so both exercise the same sequence.
+	 */
+	static Configuration variant( Configuration base, int cycle ) {
+		Configuration config = new Configuration( base );
+		boolean flip = ( cycle & 1 ) == 1;
+		int natural = base.orientation;
+
+		if ( flip ) {
+			config.orientation = ( natural == Configuration.ORIENTATION_LANDSCAPE ) ?
+					Configuration.ORIENTATION_PORTRAIT : Configuration.ORIENTATION_LANDSCAPE;
+			config.screenWidthDp = base.screenHeightDp;
+			config.screenHeightDp = base.screenWidthDp;
+		}
+		config.setLocale( LOCALES[( cycle / 2 ) % LOCALES.length] );
+		config.fontScale = FONT_SCALES[( cycle / 3 ) % FONT_SCALES.length];
+		return config;
+	}
+
+	private static long median( long[] values, int from, int to ) {
+		long[] window = Arrays.copyOfRange( values, from, to );
+		Arrays.sort( window );
+		return window[window.length / 2];
+	}
+
+	/**
+	 * Used heap after forcing collection.
+	 */
+	private static long usedHeapKb() {
+		Runtime runtime = Runtime.getRuntime();
+		for ( int i = 0; i < 3; i++ ) {
+			runtime.gc();
+			runtime.runFinalization();
+		}
+		return currentHeapKb();
+	}
+
+	/**
+	 * Used heap right now, garbage included.
+	 */
+	private static long currentHeapKb() {
+		Runtime runtime = Runtime.getRuntime();
+		return ( runtime.totalMemory() - runtime.freeMemory() ) / 1024;
+	}
+}
@@ -0,0 +1,140 @@
+package com.jotabout.screeninfo;
+
+/**
+ * ScreenInfo
+ *
+ * Display the screen configuration parameters for an Android device.
+ *
+ * Copyright (c) 2011 Michael J. Portuesi (http://www.jotabout.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+/**
+ * Synthetic CPU load on a fixed number of worker threads.  Each worker
+ * alternates busy work and sleep over a short period, spinning for the
+ * current duty cycle's share of it, so the load level can be changed
+ * while the workers run.
+ */
+public class CpuLoad {
+
+	//////////////////////////////////////////////////////////////////////////
+	// Constants
+	//////////////////////////////////////////////////////////////////////////
+
+	private final static long PERIOD_NANOS = 20000000L;
+
+	//////////////////////////////////////////////////////////////////////////
+	// State
+	//////////////////////////////////////////////////////////////////////////
+
+	private final Thread[] mWorkers;
+	private volatile int mDutyPercent;
+	private volatile boolean mRunning;
+
+	/** Keeps the busy loop from being optimized away */
+	volatile long mSink;
+
+	public CpuLoad( int threads ) {
+		mWorkers = new Thread[Math.max( 1, threads )];
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Public
+	//////////////////////////////////////////////////////////////////////////
+
+	public int threads() {
+		return mWorkers.length;
+	}
+
+	/**
+	 * Set the share of each period the workers spend busy, 0-100.
+	 */
+	public void setDutyPercent( int percent ) {
+		mDutyPercent = Math.max( 0, Math.min( 100, percent ) );
+	}
+
+	public int dutyPercent() {
+		return mDutyPercent;
+	}
+
+	public synchronized void start() {
+		if ( mRunning ) {
+			return;
+		}
+		mRunning = true;
+		for ( int i = 0; i < mWorkers.length; i++ ) {
+			mWorkers[i] = new Thread( new Runnable() {
+				@Override
+				public void run() {
+					work();
+				}
+			}, "CpuLoad-" + i );
+			mWorkers[i].start();
+		}
+	}
+
+	/**
+	 * Stop the workers and wait for them to exit.
+	 */
+	public synchronized void stop() {
+		if ( !mRunning ) {
+			return;
+		}
+		mRunning = false;
+		for ( Thread worker : mWorkers ) {
+			worker.interrupt();
+			try {
+				worker.join();
+			} catch ( InterruptedException e ) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Private
+	//////////////////////////////////////////////////////////////////////////
+
+	private void work() {
+		long x = System.nanoTime() | 1;
+		while ( mRunning ) {
+			long start = System.nanoTime();
+			long busyUntil = start + PERIOD_NANOS * mDutyPercent / 100;
+			while ( System.nanoTime() < busyUntil ) {
+				for ( int i = 0; i < 256; i++ ) {
+					x ^= x << 13;
+					x ^= x >>> 7;
+					x ^= x << 17;
+				}
+			}
+			mSink = x;
+
+			long idleNanos = start + PERIOD_NANOS - System.nanoTime();
+			if ( idleNanos > 0 ) {
+				try {
+					Thread.sleep( idleNanos / 1000000L, (int) ( idleNanos % 1000000L ) );
+				} catch ( InterruptedException e ) {
+					return;
+				}
+			}
+		}
+	}
+}
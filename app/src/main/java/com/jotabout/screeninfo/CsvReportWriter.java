@@ -0,0 +1,120 @@
+package com.jotabout.screeninfo;
+
+/**
+ * ScreenInfo
+ *
+ * Display the screen configuration parameters for an Android device.
+ *
+ * Copyright (c) 2011 Michael J. Portuesi (http://www.jotabout.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+/**
+ * Streams Screen snapshots as RFC 4180 CSV: a header row of field keys,
+ * then one row per snapshot.  Unsupported values are left empty.
+ */
+public class CsvReportWriter extends ScreenReportWriter {
+
+	public CsvReportWriter( Writer out ) {
+		super( out );
+	}
+
+	public CsvReportWriter( OutputStream out ) throws IOException {
+		super( out );
+	}
+
+	@Override
+	public void begin() throws IOException {
+		for ( int i = 0; i < FIELDS.length; i++ ) {
+			if ( i > 0 ) {
+				mOut.write( ',' );
+			}
+			mOut.write( FIELDS[i] );
+		}
+		mOut.write( "\r\n" );
+	}
+
+	@Override
+	public void end() throws IOException {
+		mOut.flush();
+	}
+
+	@Override
+	protected void beginRecord() {
+	}
+
+	@Override
+	protected void endRecord() throws IOException {
+		mOut.write( "\r\n" );
+	}
+
+	@Override
+	protected void stringValue( int index, String key, String value ) throws IOException {
+		separator( index );
+		if ( value == null ) {
+			return;
+		}
+
+		if ( !needsQuoting( value ) ) {
+			mOut.write( value );
+			return;
+		}
+
+		mOut.write( '"' );
+		int length = value.length();
+		for ( int i = 0; i < length; i++ ) {
+			char c = value.charAt( i );
+			if ( c == '"' ) {
+				mOut.write( '"' );
+			}
+			mOut.write( c );
+		}
+		mOut.write( '"' );
+	}
+
+	@Override
+	protected void numberValue( int index, String key, String value ) throws IOException {
+		separator( index );
+		if ( value != null ) {
+			mOut.write( value );
+		}
+	}
+
+	private void separator( int index ) throws IOException {
+		if ( index > 0 ) {
+			mOut.write( ',' );
+		}
+	}
+
+	private static boolean needsQuoting( String value ) {
+		int length = value.length();
+		for ( int i = 0; i < length; i++ ) {
+			char c = value.charAt( i );
+			if ( c == ',' || c == '"' || c == '\r' || c == '\n' ) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,380 @@
+package com.jotabout.screeninfo;
+
+/**
+ * ScreenInfo
+ *
+ * Display the screen configuration parameters for an Android device.
+ *
+ * Copyright (c) 2011 Michael J. Portuesi (http://www.jotabout.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.util.Log;
+
+/**
+ * Read-only reference database of known display panels, used to sanity
+ * check the xdpi/ydpi values reported by the device.
+ *
+ * The database is a sorted binary file (assets/devices.bin, built from
+ * master_assets/devices.csv by tools/DeviceDatabaseBuilder.java) that is
+ * memory-mapped rather than loaded onto the heap.  Layout, all big-endian:
+ *
+ *   header       magic, version, record count, bucket count, and the
+ *                offsets of the four sections below
+ *   records      fixed-size records sorted by (short side, long side,
+ *                diagonal): short px, long px, diagonal (float),
+ *                panel dpi (float), name offset, name length
+ *   displacement one int per hash bucket (perfect hash on model name)
+ *   slots        one int per record, mapping hash slot to record index
+ *   names        model names as UTF-16 chars
+ *
+ * Lookups by model name use the hash-and-displace perfect hash: the
+ * bucket's displacement selects a second hash that lands every key of the
+ * bucket in its own slot.  Nearest-panel lookups binary search the short
+ * side and widen outward, pruning once the short-side distance alone
+ * exceeds the k-th best match.  Neither lookup allocates.
+ */
+public class DeviceDatabase {
+
+	//////////////////////////////////////////////////////////////////////////
+	// Constants
+	//////////////////////////////////////////////////////////////////////////
+
+	public final static String ASSET_NAME = "devices.bin";
+
+	final static int MAGIC = 0x53494442;	// "SIDB"
+	final static int VERSION = 1;
+	final static int HEADER_SIZE = 32;
+	final static int RECORD_SIZE = 24;
+
+	/**
+	 * Weight of one inch of diagonal, in pixels, in the nearest-panel metric.
+	 */
+	final static float DIAGONAL_WEIGHT = 100.0f;
+
+	/**
+	 * Relative tolerance between reported and reference dpi.
+	 */
+	private final static float DPI_TOLERANCE = 0.10f;
+
+	private final static String TAG = "ScreenInfo";
+
+	//////////////////////////////////////////////////////////////////////////
+	// State
+	//////////////////////////////////////////////////////////////////////////
+
+	private static DeviceDatabase sInstance;
+
+	private final ByteBuffer mBuffer;
+	private final int mCount;
+	private final int mBuckets;
+	private final int mRecords;
+	private final int mDisplacements;
+	private final int mSlots;
+	private final int mNames;
+
+	DeviceDatabase( ByteBuffer buffer ) throws IOException {
+		mBuffer = buffer;
+		if ( buffer.getInt( 0 ) != MAGIC || buffer.getInt( 4 ) != VERSION ) {
+			throw new IOException( "Not a device database" );
+		}
+		mCount = buffer.getInt( 8 );
+		mBuckets = buffer.getInt( 12 );
+		mRecords = buffer.getInt( 16 );
+		mDisplacements = buffer.getInt( 20 );
+		mSlots = buffer.getInt( 24 );
+		mNames = buffer.getInt( 28 );
+	}
+
+	/**
+	 * Map the bundled database.  Returns null if it cannot be opened.
+	 */
+	public static synchronized DeviceDatabase open( Context ctx ) {
+		if ( sInstance == null ) {
+			try {
+				sInstance = new DeviceDatabase( map( ctx ) );
+			} catch ( IOException e ) {
+				Log.e( TAG, "Unable to open device database", e );
+			}
+		}
+		return sInstance;
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Public
+	//////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Number of panels in the database.
+	 */
+	public int size() {
+		return mCount;
+	}
+
+	/**
+	 * Index of the panel for the given model name, or -1 if unknown.
+	 */
+	public int find( String model ) {
+		if ( mCount == 0 || model == null ) {
+			return -1;
+		}
+
+		int bucket = bucket( hash( model, 0 ), mBuckets );
+		int displacement = mBuffer.getInt( mDisplacements + bucket * 4 );
+		int slot = bucket( hash( model, displacement ), mCount );
+		int index = mBuffer.getInt( mSlots + slot * 4 );
+
+		return nameEquals( index, model ) ? index : -1;
+	}
+
+	/**
+	 * Find the k panels nearest to the given resolution and diagonal.  The
+	 * resolution may be in either orientation.  Matches are written to
+	 * outIndices (and their distances to outDistances) closest first; the
+	 * number of matches is min(k, size()), where k is outIndices.length.
+	 */
+	public int nearest( int widthPx, int heightPx, double diagonalInches,
+			int[] outIndices, float[] outDistances ) {
+		int k = Math.min( outIndices.length, mCount );
+		if ( k == 0 ) {
+			return 0;
+		}
+
+		int shortPx = Math.min( widthPx, heightPx );
+		int longPx = Math.max( widthPx, heightPx );
+		float diagonal = (float) diagonalInches;
+
+		int found = 0;
+		int right = lowerBound( shortPx );
+		int left = right - 1;
+		boolean leftOpen = left >= 0;
+		boolean rightOpen = right < mCount;
+
+		while ( leftOpen || rightOpen ) {
+			if ( leftOpen ) {
+				float ds = shortPx - shortPx( left );
+				if ( found == k && ds * ds >= outDistances[k - 1] ) {
+					leftOpen = false;
+				} else {
+					found = offer( left, distance( left, shortPx, longPx, diagonal ),
+							outIndices, outDistances, found, k );
+					leftOpen = --left >= 0;
+				}
+			}
+			if ( rightOpen ) {
+				float ds = shortPx( right ) - shortPx;
+				if ( found == k && ds * ds >= outDistances[k - 1] ) {
+					rightOpen = false;
+				} else {
+					found = offer( right, distance( right, shortPx, longPx, diagonal ),
+							outIndices, outDistances, found, k );
+					rightOpen = ++right < mCount;
+				}
+			}
+		}
+
+		// Distances were compared squared; report them in pixels.
+		for ( int i = 0; i < found; i++ ) {
+			outDistances[i] = (float) Math.sqrt( outDistances[i] );
+		}
+		return found;
+	}
+
+	/**
+	 * True if the panel has the given resolution, in either orientation.
+	 * Model names alone are ambiguous (one Build.MODEL can cover several
+	 * generations of hardware), so a name match should be confirmed with this.
+	 */
+	public boolean resolutionMatches( int index, int widthPx, int heightPx ) {
+		return shortPx( index ) == Math.min( widthPx, heightPx )
+			&& longPx( index ) == Math.max( widthPx, heightPx );
+	}
+
+	/**
+	 * True if the reported x and y dpi both agree with the panel's dpi.
+	 */
+	public boolean dpiMatches( int index, float xdpi, float ydpi ) {
+		float dpi = panelDpi( index );
+		return Math.abs( xdpi - dpi ) <= dpi * DPI_TOLERANCE
+			&& Math.abs( ydpi - dpi ) <= dpi * DPI_TOLERANCE;
+	}
+
+	/**
+	 * Model name of the panel at the given index.
+	 */
+	public String model( int index ) {
+		int offset = mBuffer.getInt( record( index ) + 16 );
+		int length = mBuffer.getShort( record( index ) + 20 );
+		char[] chars = new char[length];
+		for ( int i = 0; i < length; i++ ) {
+			chars[i] = mBuffer.getChar( mNames + ( offset + i ) * 2 );
+		}
+		return new String( chars );
+	}
+
+	/**
+	 * Short side of the panel, in pixels.
+	 */
+	public int shortPx( int index ) {
+		return mBuffer.getInt( record( index ) );
+	}
+
+	/**
+	 * Long side of the panel, in pixels.
+	 */
+	public int longPx( int index ) {
+		return mBuffer.getInt( record( index ) + 4 );
+	}
+
+	/**
+	 * Advertised diagonal of the panel, in inches.
+	 */
+	public float diagonalInches( int index ) {
+		return mBuffer.getFloat( record( index ) + 8 );
+	}
+
+	/**
+	 * Physical dpi of the panel.
+	 */
+	public float panelDpi( int index ) {
+		return mBuffer.getFloat( record( index ) + 12 );
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Hashing (shared with tools/DeviceDatabaseBuilder.java)
+	//////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Seeded 32-bit FNV-1a over the UTF-16 chars of the key, with a
+	 * murmur3 finalizer.
+	 */
+	static int hash( CharSequence key, int seed ) {
+		int h = 0x811C9DC5 ^ ( seed * 0x9E3779B9 );
+		int length = key.length();
+		for ( int i = 0; i < length; i++ ) {
+			h ^= key.charAt( i );
+			h *= 0x01000193;
+		}
+		// Final avalanche so that every seed yields an independent slot.
+		h ^= h >>> 16;
+		h *= 0x85EBCA6B;
+		h ^= h >>> 13;
+		h *= 0xC2B2AE35;
+		h ^= h >>> 16;
+		return h;
+	}
+
+	static int bucket( int hash, int size ) {
+		return ( hash & 0x7FFFFFFF ) % size;
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Private
+	//////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Map the asset straight out of the APK.  The asset must be stored
+	 * uncompressed (see aaptOptions in build.gradle).
+	 */
+	private static ByteBuffer map( Context ctx ) throws IOException {
+		AssetFileDescriptor afd = ctx.getAssets().openFd( ASSET_NAME );
+		FileInputStream in = new FileInputStream( afd.getFileDescriptor() );
+		try {
+			return in.getChannel().map( FileChannel.MapMode.READ_ONLY,
+					afd.getStartOffset(), afd.getLength() );
+		} finally {
+			// The mapping stays valid after the channel is closed.
+			in.close();
+			afd.close();
+		}
+	}
+
+	private int record( int index ) {
+		return mRecords + index * RECORD_SIZE;
+	}
+
+	private boolean nameEquals( int index, String model ) {
+		int offset = mBuffer.getInt( record( index ) + 16 );
+		int length = mBuffer.getShort( record( index ) + 20 );
+		if ( length != model.length() ) {
+			return false;
+		}
+		for ( int i = 0; i < length; i++ ) {
+			if ( mBuffer.getChar( mNames + ( offset + i ) * 2 ) != model.charAt( i ) ) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * First record whose short side is >= shortPx.
+	 */
+	private int lowerBound( int shortPx ) {
+		int lo = 0;
+		int hi = mCount;
+		while ( lo < hi ) {
+			int mid = ( lo + hi ) >>> 1;
+			if ( shortPx( mid ) < shortPx ) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	/**
+	 * Squared distance between a record and the query.
+	 */
+	private float distance( int index, int shortPx, int longPx, float diagonal ) {
+		float ds = shortPx( index ) - shortPx;
+		float dl = longPx( index ) - longPx;
+		float dd = ( diagonalInches( index ) - diagonal ) * DIAGONAL_WEIGHT;
+		return ds * ds + dl * dl + dd * dd;
+	}
+
+	/**
+	 * Insert a candidate into the sorted best-k lists; returns the new count.
+	 */
+	private static int offer( int index, float distance, int[] indices, float[] distances,
+			int found, int k ) {
+		if ( found == k && distance >= distances[k - 1] ) {
+			return found;
+		}
+
+		int i = ( found < k ) ? found++ : k - 1;
+		while ( i > 0 && distances[i - 1] > distance ) {
+			indices[i] = indices[i - 1];
+			distances[i] = distances[i - 1];
+			i--;
+		}
+		indices[i] = index;
+		distances[i] = distance;
+		return found;
+	}
+}
@@ -0,0 +1,148 @@
+package com.jotabout.screeninfo;
+
+/**
+ * ScreenInfo
+ *
+ * Display the screen configuration parameters for an Android device.
+ *
+ * Copyright (c) 2011 Michael J. Portuesi (http://www.jotabout.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import android.annotation.SuppressLint;
+import android.os.Build;
+import android.view.Display;
+
+/**
+ * One display mode (physical resolution x refresh rate) supported by
+ * the panel.
+ *
+ * Display.Mode arrived in Android 6.0 (API 23), so it is read via
+ * reflection.  On API 21-22 the supported refresh rates are paired with
+ * the current resolution; on older releases the only known mode is the
+ * current one.
+ */
+public class DisplayMode {
+
+	/**
+	 * Mode id used when the platform has no Display.Mode.
+	 */
+	public static final int NO_MODE_ID = 0;
+
+	private final int mModeId;
+	private final int mWidthPx;
+	private final int mHeightPx;
+	private final float mRefreshRate;
+
+	public DisplayMode( int modeId, int widthPx, int heightPx, float refreshRate ) {
+		mModeId = modeId;
+		mWidthPx = widthPx;
+		mHeightPx = heightPx;
+		mRefreshRate = refreshRate;
+	}
+
+	/**
+	 * Platform mode id (Display.Mode#getModeId), or NO_MODE_ID.
+	 */
+	public int modeId() {
+		return mModeId;
+	}
+
+	/**
+	 * Physical width of the mode, in pixels
+	 */
+	public int widthPx() {
+		return mWidthPx;
+	}
+
+	/**
+	 * Physical height of the mode, in pixels
+	 */
+	public int heightPx() {
+		return mHeightPx;
+	}
+
+	/**
+	 * Refresh rate of the mode, in frames per second
+	 */
+	public float refreshRate() {
+		return mRefreshRate;
+	}
+
+	@Override
+	public String toString() {
+		return mWidthPx + "x" + mHeightPx + "@" + mRefreshRate;
+	}
+
+	/**
+	 * Enumerate all modes supported by the display.
+	 */
+	@SuppressLint("NewApi")
+	public static List<DisplayMode> supportedModes( Display display, int widthPx, int heightPx ) {
+		List<DisplayMode> modes = new ArrayList<DisplayMode>();
+
+		// Display#getSupportedModes(), as of Android 6.0, API 23
+		try {
+			Method getSupportedModes = display.getClass().getMethod( "getSupportedModes" );
+			Object array = getSupportedModes.invoke( display );
+			for ( int i = 0; i < Array.getLength( array ); i++ ) {
+				modes.add( fromPlatformMode( Array.get( array, i ) ) );
+			}
+			return modes;
+		} catch ( Exception ignore ) {
+			;
+		}
+
+		if ( Build.VERSION.SDK_INT >= 21 ) {
+			for ( float rate : display.getSupportedRefreshRates() ) {
+				modes.add( new DisplayMode( NO_MODE_ID, widthPx, heightPx, rate ) );
+			}
+		} else {
+			modes.add( new DisplayMode( NO_MODE_ID, widthPx, heightPx, display.getRefreshRate() ) );
+		}
+		return modes;
+	}
+
+	/**
+	 * The display's current mode id, or NO_MODE_ID before API 23.
+	 */
+	public static int currentModeId( Display display ) {
+		try {
+			Method getMode = display.getClass().getMethod( "getMode" );
+			return fromPlatformMode( getMode.invoke( display ) ).modeId();
+		} catch ( Exception ignore ) {
+			return NO_MODE_ID;
+		}
+	}
+
+	private static DisplayMode fromPlatformMode( Object mode ) throws Exception {
+		Class<?> cls = mode.getClass();
+		return new DisplayMode(
+				(Integer) cls.getMethod( "getModeId" ).invoke( mode ),
+				(Integer) cls.getMethod( "getPhysicalWidth" ).invoke( mode ),
+				(Integer) cls.getMethod( "getPhysicalHeight" ).invoke( mode ),
+				(Float) cls.getMethod( "getRefreshRate" ).invoke( mode ) );
+	}
+}
@@ -0,0 +1,303 @@
+package com.jotabout.screeninfo;
+
+/**
+ * ScreenInfo
+ *
+ * Display the screen configuration parameters for an Android device.
+ *
+ * Copyright (c) 2011 Michael J. Portuesi (http://www.jotabout.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Locale;
+
+import android.annotation.TargetApi;
+import android.app.Activity;
+import android.os.Build;
+import android.os.Bundle;
+import android.view.Choreographer;
+import android.view.Display;
+import android.view.View;
+import android.view.WindowManager;
+import android.widget.Button;
+import android.widget.TextView;
+
+/**
+ * Test surface that requests each supported display mode in turn and
+ * measures how long each switch takes.
+ *
+ * A switch is timed from the moment the window asks for the mode until
+ * the first vsync of SETTLE_FRAMES consecutive frame intervals at the new
+ * mode's cadence (and, on API 23+, the display reporting the new mode id).
+ * The resulting mode table is shown and added to the shared report.
+ *
+ * A resolution change alters the display metrics mid-run; the manifest
+ * handles what it can in place, and a run in progress is carried across
+ * any recreation that still happens.
+ *
+ * Requires Choreographer (API 16).
+ */
+@TargetApi(16)
+public class DisplayModeBenchmark extends Activity implements Choreographer.FrameCallback {
+
+	//////////////////////////////////////////////////////////////////////////
+	// Constants
+	//////////////////////////////////////////////////////////////////////////
+
+	private final static int SETTLE_FRAMES = 10;
+	private final static float PERIOD_TOLERANCE = 0.15f;
+	private final static long TIMEOUT_NANOS = 3000000000L;
+
+	//////////////////////////////////////////////////////////////////////////
+	// State
+	//////////////////////////////////////////////////////////////////////////
+
+	private Display mDisplay;
+	private List<DisplayMode> mModes;
+	private long[] mLatencyNanos;
+
+	private TextView mResults;
+	private View mSurface;
+	private Button mRun;
+
+	private int mCurrent = -1;
+	private long mRequestNanos;
+	private long mLastFrameNanos;
+	private long mRunStartNanos;
+	private int mRunLength;
+	private boolean mModeConfirmed;
+
+	/**
+	 * A run in progress, handed to the next instance on recreation.
+	 */
+	private static class RunState {
+		List<DisplayMode> modes;
+		long[] latencyNanos;
+		int current;
+		long requestNanos;
+		long lastFrameNanos;
+		long runStartNanos;
+		int runLength;
+		boolean modeConfirmed;
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Activity Lifecycle
+	//////////////////////////////////////////////////////////////////////////
+
+	@Override
+	public void onCreate(Bundle savedInstanceState) {
+		super.onCreate(savedInstanceState);
+		setContentView(R.layout.display_modes);
+
+		mDisplay = ((WindowManager) getSystemService(WINDOW_SERVICE)).getDefaultDisplay();
+		@SuppressWarnings("deprecation")
+		RunState state = (RunState) getLastNonConfigurationInstance();
+		if ( state != null ) {
+			mModes = state.modes;
+			mLatencyNanos = state.latencyNanos;
+		} else {
+			mModes = new Screen(this).displayModes();
+			mLatencyNanos = new long[mModes.size()];
+		}
+
+		mResults = (TextView) findViewById(R.id.display_modes_results);
+		mSurface = findViewById(R.id.display_modes_surface);
+		mRun = (Button) findViewById(R.id.display_modes_run);
+		mRun.setOnClickListener(new View.OnClickListener() {
+			@Override
+			public void onClick(View v) {
+				start();
+			}
+		});
+
+		mResults.setText( modeTable( false ) );
+		if ( state != null && state.current >= 0 ) {
+			resume( state );
+		}
+	}
+
+	@Override
+	@Deprecated
+	public Object onRetainNonConfigurationInstance() {
+		RunState state = new RunState();
+		state.modes = mModes;
+		state.latencyNanos = mLatencyNanos;
+		state.current = mCurrent;
+		state.requestNanos = mRequestNanos;
+		state.lastFrameNanos = mLastFrameNanos;
+		state.runStartNanos = mRunStartNanos;
+		state.runLength = mRunLength;
+		state.modeConfirmed = mModeConfirmed;
+		return state;
+	}
+
+	@Override
+	protected void onPause() {
+		super.onPause();
+		if ( mCurrent >= 0 ) {
+			Choreographer.getInstance().removeFrameCallback(this);
+			if ( isChangingConfigurations() ) {
+				// Recreated for the new mode's metrics; the next instance carries on.
+				return;
+			}
+			mCurrent = -1;
+			requestMode( null );
+			mRun.setEnabled( true );
+		}
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Benchmark
+	//////////////////////////////////////////////////////////////////////////
+
+	private void start() {
+		mRun.setEnabled( false );
+		mResults.setText( R.string.display_modes_running );
+		switchTo( 0 );
+		Choreographer.getInstance().postFrameCallback(this);
+	}
+
+	/**
+	 * Pick up a run handed over by the previous instance, keeping the
+	 * request time so the switch latency still spans the recreation.
+	 */
+	private void resume( RunState state ) {
+		mCurrent = state.current;
+		mRequestNanos = state.requestNanos;
+		mLastFrameNanos = state.lastFrameNanos;
+		mRunStartNanos = state.runStartNanos;
+		mRunLength = state.runLength;
+		mModeConfirmed = state.modeConfirmed;
+
+		mRun.setEnabled( false );
+		mResults.setText( R.string.display_modes_running );
+		requestMode( mModes.get( mCurrent ) );
+		Choreographer.getInstance().postFrameCallback(this);
+	}
+
+	private void switchTo( int index ) {
+		mCurrent = index;
+		mRunLength = 0;
+		mModeConfirmed = false;
+		mLastFrameNanos = 0;
+		mRequestNanos = System.nanoTime();
+		requestMode( mModes.get( index ) );
+	}
+
+	private void switchComplete( boolean timedOut ) {
+		mLatencyNanos[mCurrent] = timedOut ? -1 : Math.max( 0, mRunStartNanos - mRequestNanos );
+
+		if ( mCurrent + 1 < mModes.size() ) {
+			switchTo( mCurrent + 1 );
+			return;
+		}
+
+		mCurrent = -1;
+		requestMode( null );
+		String table = modeTable( true );
+		mResults.setText( table );
+		BenchmarkReports.put( getString( R.string.display_modes_title ), table );
+		mRun.setEnabled( true );
+	}
+
+	@Override
+	public void doFrame(long frameTimeNanos) {
+		if ( mCurrent < 0 ) {
+			return;
+		}
+
+		DisplayMode target = mModes.get( mCurrent );
+		if ( frameTimeNanos - mRequestNanos > TIMEOUT_NANOS ) {
+			switchComplete( true );
+		} else {
+			if ( !mModeConfirmed ) {
+				mModeConfirmed = target.modeId() == DisplayMode.NO_MODE_ID
+						|| DisplayMode.currentModeId( mDisplay ) == target.modeId();
+			}
+
+			if ( mLastFrameNanos > 0 && frameTimeNanos > mRequestNanos && mModeConfirmed ) {
+				float period = 1e9f / target.refreshRate();
+				long interval = frameTimeNanos - mLastFrameNanos;
+				if ( Math.abs( interval - period ) <= period * PERIOD_TOLERANCE ) {
+					if ( mRunLength++ == 0 ) {
+						mRunStartNanos = frameTimeNanos;
+					}
+				} else {
+					mRunLength = 0;
+				}
+			}
+			mLastFrameNanos = frameTimeNanos;
+
+			if ( mRunLength >= SETTLE_FRAMES ) {
+				switchComplete( false );
+			}
+		}
+
+		if ( mCurrent >= 0 ) {
+			// Keep the surface drawing so frames are produced at the new cadence.
+			mSurface.invalidate();
+			Choreographer.getInstance().postFrameCallback(this);
+		}
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Private
+	//////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Ask the window manager to run this window in the given mode, or
+	 * clear the preference when mode is null.
+	 */
+	private void requestMode( DisplayMode mode ) {
+		WindowManager.LayoutParams lp = getWindow().getAttributes();
+
+		// WindowManager.LayoutParams#preferredDisplayModeId, as of Android 6.0, API 23
+		try {
+			Field modeField = lp.getClass().getField( "preferredDisplayModeId" );
+			modeField.setInt( lp, mode == null ? 0 : mode.modeId() );
+		} catch ( Exception ignore ) {
+			if ( Build.VERSION.SDK_INT >= 21 ) {
+				lp.preferredRefreshRate = mode == null ? 0 : mode.refreshRate();
+			}
+		}
+
+		getWindow().setAttributes( lp );
+	}
+
+	private String modeTable( boolean withLatency ) {
+		StringBuilder sb = new StringBuilder();
+		sb.append( getString( R.string.display_modes_header ) ).append( "\n" );
+		for ( int i = 0; i < mModes.size(); i++ ) {
+			DisplayMode mode = mModes.get( i );
+			String latency = "";
+			if ( withLatency ) {
+				latency = mLatencyNanos[i] < 0 ?
+						getString( R.string.display_modes_timeout ) :
+						String.format( Locale.US, "%.1f", mLatencyNanos[i] / 1e6 );
+			}
+			sb.append( String.format( Locale.US, "%-4d %5dx%-5d %6.1f %10s\n",
+					mode.modeId(), mode.widthPx(), mode.heightPx(), mode.refreshRate(), latency ) );
+		}
+		return sb.toString();
+	}
+}
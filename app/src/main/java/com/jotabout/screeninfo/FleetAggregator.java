@@ -0,0 +1,315 @@
+package com.jotabout.screeninfo;
+
+/**
+ * ScreenInfo
+ *
+ * Display the screen configuration parameters for an Android device.
+ *
+ * Copyright (c) 2011 Michael J. Portuesi (http://www.jotabout.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Aggregates Screen records from a device fleet into percentiles of the
+ * continuous metrics and exact counts of the categorical ones, overall,
+ * per model and per Android version.
+ *
+ * Each worker thread (or node) fills its own aggregator; partial results
+ * are combined with merge(), or write() and read() across processes.
+ * Not thread-safe.
+ */
+public class FleetAggregator {
+
+	//////////////////////////////////////////////////////////////////////////
+	// Constants
+	//////////////////////////////////////////////////////////////////////////
+
+	private final static int FORMAT_VERSION = 1;
+
+	/** ldpi, mdpi, tvdpi, hdpi, xhdpi, xxhdpi, xxxhdpi */
+	private final static int[] DENSITY_BUCKETS = { 120, 160, 213, 240, 320, 480, 640 };
+
+	private final static double[] REPORT_QUANTILES = { 0.05, 0.5, 0.95 };
+
+	//////////////////////////////////////////////////////////////////////////
+	// Group
+	//////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Sketches and counters for one slice of the fleet.
+	 */
+	public static class Group {
+		public final QuantileSketch diagonalInches;
+		public final QuantileSketch xdpi;
+		public final QuantileSketch ydpi;
+		public final QuantileSketch refreshRate;
+		public final QuantileSketch smallestDp;
+		public final CategoryCounter sizeClassification = new CategoryCounter();
+		public final CategoryCounter densityBucket = new CategoryCounter();
+		public final CategoryCounter touchScreen = new CategoryCounter();
+
+		Group( int k ) {
+			diagonalInches = new QuantileSketch( k );
+			xdpi = new QuantileSketch( k );
+			ydpi = new QuantileSketch( k );
+			refreshRate = new QuantileSketch( k );
+			smallestDp = new QuantileSketch( k );
+		}
+
+		private Group( DataInput in, int k ) throws IOException {
+			diagonalInches = readSketch( in, k );
+			xdpi = readSketch( in, k );
+			ydpi = readSketch( in, k );
+			refreshRate = readSketch( in, k );
+			smallestDp = readSketch( in, k );
+			sizeClassification.merge( CategoryCounter.read( in ) );
+			densityBucket.merge( CategoryCounter.read( in ) );
+			touchScreen.merge( CategoryCounter.read( in ) );
+		}
+
+		public long count() {
+			return sizeClassification.total();
+		}
+
+		void merge( Group other ) {
+			diagonalInches.merge( other.diagonalInches );
+			xdpi.merge( other.xdpi );
+			ydpi.merge( other.ydpi );
+			refreshRate.merge( other.refreshRate );
+			smallestDp.merge( other.smallestDp );
+			sizeClassification.merge( other.sizeClassification );
+			densityBucket.merge( other.densityBucket );
+			touchScreen.merge( other.touchScreen );
+		}
+
+		void write( DataOutput out ) throws IOException {
+			diagonalInches.write( out );
+			xdpi.write( out );
+			ydpi.write( out );
+			refreshRate.write( out );
+			smallestDp.write( out );
+			sizeClassification.write( out );
+			densityBucket.write( out );
+			touchScreen.write( out );
+		}
+
+		void appendTo( StringBuilder sb ) {
+			sb.append( "  records: " ).append( count() ).append( "\n" );
+			appendSketch( sb, "diagonal (in)", diagonalInches );
+			appendSketch( sb, "xdpi", xdpi );
+			appendSketch( sb, "ydpi", ydpi );
+			appendSketch( sb, "refresh rate", refreshRate );
+			appendSketch( sb, "smallest dp", smallestDp );
+			sb.append( "  size class: " ).append( sizeClassification ).append( "\n" );
+			sb.append( "  density bucket: " ).append( densityBucket ).append( "\n" );
+			sb.append( "  touchscreen: " ).append( touchScreen ).append( "\n" );
+		}
+
+		private static void appendSketch( StringBuilder sb, String label, QuantileSketch sketch ) {
+			double[] q = sketch.quantiles( REPORT_QUANTILES );
+			sb.append( String.format( Locale.US, "  %s p5/p50/p95: %.4g / %.4g / %.4g\n",
+					label, q[0], q[1], q[2] ) );
+		}
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// State
+	//////////////////////////////////////////////////////////////////////////
+
+	private final int mK;
+	private final Group mAll;
+	private final Map<String, Group> mByModel = new TreeMap<String, Group>();
+	private final Map<String, Group> mByVersion = new TreeMap<String, Group>();
+
+	public FleetAggregator() {
+		this( QuantileSketch.DEFAULT_K );
+	}
+
+	/**
+	 * @param k sketch accuracy parameter; each group holds five sketches of
+	 *          roughly 3k values each
+	 */
+	public FleetAggregator( int k ) {
+		mK = k;
+		mAll = new Group( k );
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Public
+	//////////////////////////////////////////////////////////////////////////
+
+	public void add( Screen screen ) {
+		add( screen.deviceModel(), screen.androidVersion(), screen.diagonalSizeInches(),
+				screen.xdpi(), screen.ydpi(), screen.refreshRate(), screen.smallestDp(),
+				screen.sizeClassification(), screen.densityDpi(), screen.touchScreen() );
+	}
+
+	/**
+	 * Add one record from its fields, e.g. when reading exported reports.
+	 */
+	public void add( String model, String androidVersion, double diagonalInches,
+			float xdpi, float ydpi, float refreshRate, int smallestDp,
+			int sizeClassification, int densityDpi, int touchScreen ) {
+		add( mAll, diagonalInches, xdpi, ydpi, refreshRate, smallestDp,
+				sizeClassification, densityDpi, touchScreen );
+		add( group( mByModel, model ), diagonalInches, xdpi, ydpi, refreshRate, smallestDp,
+				sizeClassification, densityDpi, touchScreen );
+		add( group( mByVersion, androidVersion ), diagonalInches, xdpi, ydpi, refreshRate, smallestDp,
+				sizeClassification, densityDpi, touchScreen );
+	}
+
+	/**
+	 * Fold another aggregator's results into this one.
+	 */
+	public void merge( FleetAggregator other ) {
+		mAll.merge( other.mAll );
+		mergeGroups( mByModel, other.mByModel );
+		mergeGroups( mByVersion, other.mByVersion );
+	}
+
+	public Group all() {
+		return mAll;
+	}
+
+	public Map<String, Group> byModel() {
+		return mByModel;
+	}
+
+	public Map<String, Group> byAndroidVersion() {
+		return mByVersion;
+	}
+
+	public void write( DataOutput out ) throws IOException {
+		out.writeByte( FORMAT_VERSION );
+		out.writeShort( mK );
+		mAll.write( out );
+		writeGroups( out, mByModel );
+		writeGroups( out, mByVersion );
+	}
+
+	public static FleetAggregator read( DataInput in ) throws IOException {
+		int version = in.readUnsignedByte();
+		if ( version != FORMAT_VERSION ) {
+			throw new IOException( "Unsupported aggregate version: " + version );
+		}
+		FleetAggregator aggregator = new FleetAggregator( in.readUnsignedShort() );
+		aggregator.mAll.merge( new Group( in, aggregator.mK ) );
+		readGroups( in, aggregator.mByModel, aggregator.mK );
+		readGroups( in, aggregator.mByVersion, aggregator.mK );
+		return aggregator;
+	}
+
+	/**
+	 * Human-readable summary: overall, then per Android version.  Per-model
+	 * groups are left out as there may be thousands of them.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append( "All devices\n" );
+		mAll.appendTo( sb );
+		for ( Map.Entry<String, Group> entry : mByVersion.entrySet() ) {
+			sb.append( "Android " ).append( entry.getKey() ).append( "\n" );
+			entry.getValue().appendTo( sb );
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * The standard density bucket nearest to a densityDpi value.
+	 */
+	public static int densityBucket( int densityDpi ) {
+		int best = DENSITY_BUCKETS[0];
+		for ( int bucket : DENSITY_BUCKETS ) {
+			if ( Math.abs( bucket - densityDpi ) < Math.abs( best - densityDpi ) ) {
+				best = bucket;
+			}
+		}
+		return best;
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Private
+	//////////////////////////////////////////////////////////////////////////
+
+	private static void add( Group group, double diagonalInches, float xdpi, float ydpi,
+			float refreshRate, int smallestDp, int sizeClassification, int densityDpi, int touchScreen ) {
+		group.diagonalInches.add( diagonalInches );
+		group.xdpi.add( xdpi );
+		group.ydpi.add( ydpi );
+		group.refreshRate.add( refreshRate );
+		group.smallestDp.add( smallestDp );
+		group.sizeClassification.add( sizeClassification );
+		group.densityBucket.add( densityBucket( densityDpi ) );
+		group.touchScreen.add( touchScreen );
+	}
+
+	private Group group( Map<String, Group> groups, String key ) {
+		if ( key == null ) {
+			key = "";
+		}
+		Group group = groups.get( key );
+		if ( group == null ) {
+			group = new Group( mK );
+			groups.put( key, group );
+		}
+		return group;
+	}
+
+	private void mergeGroups( Map<String, Group> into, Map<String, Group> from ) {
+		for ( Map.Entry<String, Group> entry : from.entrySet() ) {
+			group( into, entry.getKey() ).merge( entry.getValue() );
+		}
+	}
+
+	private static void writeGroups( DataOutput out, Map<String, Group> groups ) throws IOException {
+		out.writeInt( groups.size() );
+		for ( Map.Entry<String, Group> entry : groups.entrySet() ) {
+			out.writeUTF( entry.getKey() );
+			entry.getValue().write( out );
+		}
+	}
+
+	private static void readGroups( DataInput in, Map<String, Group> groups, int k ) throws IOException {
+		int count = in.readInt();
+		for ( int i = 0; i < count; i++ ) {
+			String key = in.readUTF();
+			groups.put( key, new Group( in, k ) );
+		}
+	}
+
+	/**
+	 * Read a sketch, which must have the aggregate's k to be mergeable later.
+	 */
+	private static QuantileSketch readSketch( DataInput in, int k ) throws IOException {
+		QuantileSketch sketch = QuantileSketch.read( in );
+		if ( sketch.k() != k ) {
+			throw new IOException( "Sketch k=" + sketch.k() + " in an aggregate of k=" + k );
+		}
+		return sketch;
+	}
+}
@@ -0,0 +1,317 @@
+package com.jotabout.screeninfo;
+
+/**
+ * ScreenInfo
+ *
+ * Display the screen configuration parameters for an Android device.
+ *
+ * Copyright (c) 2011 Michael J. Portuesi (http://www.jotabout.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+import java.lang.reflect.Method;
+
+import android.content.Context;
+import android.graphics.Rect;
+import android.os.Build;
+import android.os.Handler;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+/**
+ * Explains the gap between the real display size and the area available
+ * to the app: status bar, navigation bar, display cutout, and any part of
+ * the display outside the window (split-screen, freeform or letterboxed).
+ *
+ * Watches the window's decor view for layout passes, coalescing bursts of
+ * them (as during a split-screen drag) into one update after they settle.
+ * Window size changes are counted for the life of the process, so they
+ * survive the activity being recreated by a resize.
+ *
+ * System insets come from View#getRootWindowInsets (API 23) and cutouts
+ * from WindowInsets#getDisplayCutout (API 28), both via reflection.  On
+ * older releases the window's visible display frame stands in for the
+ * insets.
+ */
+public class InsetAnalyzer implements ViewTreeObserver.OnGlobalLayoutListener {
+
+	/**
+	 * Notified on the UI thread after the window or its insets change.
+	 */
+	public interface Listener {
+		void onInsetsChanged( InsetAnalyzer analyzer );
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Constants
+	//////////////////////////////////////////////////////////////////////////
+
+	private final static long COALESCE_MILLIS = 100;
+
+	//////////////////////////////////////////////////////////////////////////
+	// State
+	//////////////////////////////////////////////////////////////////////////
+
+	// Process-wide, so that counts carry across activity recreation
+	private static int sWindowChanges;
+	private static int sLastWindowWidth;
+	private static int sLastWindowHeight;
+
+	private final Screen mScreen;
+	private final Handler mHandler = new Handler();
+	private final Rect mFrame = new Rect();
+	private final int[] mLocation = new int[2];
+	private Listener mListener;
+	private View mDecor;
+	private boolean mMultiWindow;
+
+	private int mWindowWidth;
+	private int mWindowHeight;
+	private int mInsetLeft, mInsetTop, mInsetRight, mInsetBottom;
+	private Rect mCutout;
+
+	private final Runnable mUpdate = new Runnable() {
+		@Override
+		public void run() {
+			update();
+		}
+	};
+
+	public InsetAnalyzer( Screen screen ) {
+		mScreen = screen;
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Public
+	//////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Start watching the window that owns the given decor view.
+	 */
+	public void attach( View decor, Listener listener ) {
+		mDecor = decor;
+		mListener = listener;
+		decor.getViewTreeObserver().addOnGlobalLayoutListener( this );
+		mHandler.post( mUpdate );
+	}
+
+	@SuppressWarnings("deprecation")
+	public void detach() {
+		if ( mDecor != null ) {
+			mDecor.getViewTreeObserver().removeGlobalOnLayoutListener( this );
+			mDecor = null;
+		}
+		mHandler.removeCallbacks( mUpdate );
+		mListener = null;
+	}
+
+	public void setMultiWindow( boolean multiWindow ) {
+		mMultiWindow = multiWindow;
+		mHandler.removeCallbacks( mUpdate );
+		mHandler.post( mUpdate );
+	}
+
+	@Override
+	public void onGlobalLayout() {
+		mHandler.removeCallbacks( mUpdate );
+		mHandler.postDelayed( mUpdate, COALESCE_MILLIS );
+	}
+
+	/**
+	 * Status and navigation bar sizes, e.g. "status 63, navigation 126 (bottom)"
+	 */
+	public String systemBarsText( Context ctx ) {
+		int side;
+		int navigation;
+		if ( mInsetBottom >= Math.max( mInsetLeft, mInsetRight ) ) {
+			side = R.string.insets_bottom;
+			navigation = mInsetBottom;
+		} else if ( mInsetLeft > mInsetRight ) {
+			side = R.string.insets_left;
+			navigation = mInsetLeft;
+		} else {
+			side = R.string.insets_right;
+			navigation = mInsetRight;
+		}
+		if ( navigation == 0 ) {
+			return ctx.getString( R.string.insets_bars, mInsetTop, 0 );
+		}
+		return ctx.getString( R.string.insets_bars_side, mInsetTop, navigation, ctx.getString( side ) );
+	}
+
+	/**
+	 * Cutout safe insets by side, "none", or null if not reported.
+	 */
+	public String cutoutText( Context ctx ) {
+		if ( mCutout == null ) {
+			return null;
+		}
+		if ( mCutout.left == 0 && mCutout.top == 0 && mCutout.right == 0 && mCutout.bottom == 0 ) {
+			return ctx.getString( R.string.insets_none );
+		}
+		StringBuilder sb = new StringBuilder();
+		appendSide( ctx, sb, R.string.insets_left, mCutout.left );
+		appendSide( ctx, sb, R.string.insets_top, mCutout.top );
+		appendSide( ctx, sb, R.string.insets_right, mCutout.right );
+		appendSide( ctx, sb, R.string.insets_bottom, mCutout.bottom );
+		return sb.toString();
+	}
+
+	/**
+	 * Window and content size against the display, with the share of the
+	 * display lying outside the window.
+	 */
+	public String windowText( Context ctx ) {
+		int realWidth = realWidth();
+		int realHeight = realHeight();
+		int contentWidth = mWindowWidth - mInsetLeft - mInsetRight;
+		int contentHeight = mWindowHeight - mInsetTop - mInsetBottom;
+		long realArea = (long) realWidth * realHeight;
+		double outside = realArea == 0 ? 0 : 100.0 * ( realArea - (long) mWindowWidth * mWindowHeight ) / realArea;
+		return ctx.getString( mMultiWindow ? R.string.insets_window_multi : R.string.insets_window,
+				mWindowWidth, mWindowHeight, realWidth, realHeight,
+				contentWidth, contentHeight, Math.max( 0.0, outside ) );
+	}
+
+	/**
+	 * Number of window size changes seen in this process.
+	 */
+	public static int windowChanges() {
+		return sWindowChanges;
+	}
+
+	/**
+	 * Report section for the shared summary.
+	 */
+	public String reportText( Context ctx ) {
+		String cutout = cutoutText( ctx );
+		return ctx.getString( R.string.system_bars_label ) + " " + systemBarsText( ctx ) + "\n"
+				+ ctx.getString( R.string.display_cutout_label ) + " "
+				+ ( cutout == null ? ctx.getString( R.string.unsupported ) : cutout ) + "\n"
+				+ ctx.getString( R.string.window_size_label ) + " " + windowText( ctx ) + "\n"
+				+ ctx.getString( R.string.window_changes_label ) + " " + sWindowChanges + "\n";
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Private
+	//////////////////////////////////////////////////////////////////////////
+
+	private void update() {
+		View decor = mDecor;
+		if ( decor == null || decor.getWidth() == 0 ) {
+			return;
+		}
+
+		mWindowWidth = decor.getWidth();
+		mWindowHeight = decor.getHeight();
+		if ( !readRootInsets( decor ) ) {
+			readVisibleFrame( decor );
+		}
+
+		if ( sLastWindowWidth != 0
+				&& ( sLastWindowWidth != mWindowWidth || sLastWindowHeight != mWindowHeight ) ) {
+			sWindowChanges++;
+		}
+		sLastWindowWidth = mWindowWidth;
+		sLastWindowHeight = mWindowHeight;
+
+		if ( mListener != null ) {
+			mListener.onInsetsChanged( this );
+		}
+	}
+
+	/**
+	 * Read system window insets and cutout from View#getRootWindowInsets.
+	 * Returns false where that isn't available.
+	 */
+	private boolean readRootInsets( View decor ) {
+		if ( Build.VERSION.SDK_INT < 23 ) {
+			return false;
+		}
+		Object insets;
+		try {
+			insets = View.class.getMethod( "getRootWindowInsets" ).invoke( decor );
+			if ( insets == null ) {
+				return false;
+			}
+			mInsetLeft = intGetter( insets, "getSystemWindowInsetLeft" );
+			mInsetTop = intGetter( insets, "getSystemWindowInsetTop" );
+			mInsetRight = intGetter( insets, "getSystemWindowInsetRight" );
+			mInsetBottom = intGetter( insets, "getSystemWindowInsetBottom" );
+		} catch ( Exception ignore ) {
+			return false;
+		}
+
+		// WindowInsets#getDisplayCutout, as of Android 9, API 28
+		mCutout = null;
+		if ( Build.VERSION.SDK_INT >= 28 ) {
+			try {
+				Object cutout = insets.getClass().getMethod( "getDisplayCutout" ).invoke( insets );
+				mCutout = new Rect();
+				if ( cutout != null ) {
+					mCutout.set( intGetter( cutout, "getSafeInsetLeft" ), intGetter( cutout, "getSafeInsetTop" ),
+							intGetter( cutout, "getSafeInsetRight" ), intGetter( cutout, "getSafeInsetBottom" ) );
+				}
+			} catch ( Exception ignore ) {
+				mCutout = null;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Infer insets from the part of the window not covered by the visible
+	 * display frame.
+	 */
+	private void readVisibleFrame( View decor ) {
+		decor.getWindowVisibleDisplayFrame( mFrame );
+		decor.getLocationOnScreen( mLocation );
+		mInsetLeft = Math.max( 0, mFrame.left - mLocation[0] );
+		mInsetTop = Math.max( 0, mFrame.top - mLocation[1] );
+		mInsetRight = Math.max( 0, mLocation[0] + mWindowWidth - mFrame.right );
+		mInsetBottom = Math.max( 0, mLocation[1] + mWindowHeight - mFrame.bottom );
+		mCutout = null;
+	}
+
+	/**
+	 * Real display size, in the current orientation.
+	 */
+	private int realWidth() {
+		return mScreen.realWidthPx() == Screen.UNSUPPORTED ? mScreen.widthPx() : mScreen.realWidthPx();
+	}
+
+	private int realHeight() {
+		return mScreen.realHeightPx() == Screen.UNSUPPORTED ? mScreen.heightPx() : mScreen.realHeightPx();
+	}
+
+	private static int intGetter( Object target, String name ) throws Exception {
+		Method method = target.getClass().getMethod( name );
+		return (Integer) method.invoke( target );
+	}
+
+	private static void appendSide( Context ctx, StringBuilder sb, int side, int px ) {
+		if ( px > 0 ) {
+			if ( sb.length() > 0 ) {
+				sb.append( ", " );
+			}
+			sb.append( ctx.getString( R.string.insets_side, ctx.getString( side ), px ) );
+		}
+	}
+}
@@ -0,0 +1,131 @@
+package com.jotabout.screeninfo;
+
+/**
+ * ScreenInfo
+ *
+ * Display the screen configuration parameters for an Android device.
+ *
+ * Copyright (c) 2011 Michael J. Portuesi (http://www.jotabout.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+/**
+ * Streams Screen snapshots as a JSON array of objects, one object per
+ * snapshot.  Unsupported values are written as null.
+ */
+public class JsonReportWriter extends ScreenReportWriter {
+
+	private boolean mFirstRecord;
+
+	public JsonReportWriter( Writer out ) {
+		super( out );
+	}
+
+	public JsonReportWriter( OutputStream out ) throws IOException {
+		super( out );
+	}
+
+	@Override
+	public void begin() throws IOException {
+		mFirstRecord = true;
+		mOut.write( '[' );
+	}
+
+	@Override
+	public void end() throws IOException {
+		mOut.write( "]\n" );
+		mOut.flush();
+	}
+
+	@Override
+	protected void beginRecord() throws IOException {
+		if ( !mFirstRecord ) {
+			mOut.write( ',' );
+		}
+		mFirstRecord = false;
+		mOut.write( "\n{" );
+	}
+
+	@Override
+	protected void endRecord() throws IOException {
+		mOut.write( '}' );
+	}
+
+	@Override
+	protected void stringValue( int index, String key, String value ) throws IOException {
+		key( index, key );
+		if ( value == null ) {
+			mOut.write( "null" );
+			return;
+		}
+
+		mOut.write( '"' );
+		int length = value.length();
+		for ( int i = 0; i < length; i++ ) {
+			char c = value.charAt( i );
+			switch ( c ) {
+			case '"':
+				mOut.write( "\\\"" );
+				break;
+			case '\\':
+				mOut.write( "\\\\" );
+				break;
+			case '\n':
+				mOut.write( "\\n" );
+				break;
+			case '\r':
+				mOut.write( "\\r" );
+				break;
+			case '\t':
+				mOut.write( "\\t" );
+				break;
+			default:
+				if ( c < 0x20 ) {
+					mOut.write( "\\u00" );
+					mOut.write( Character.forDigit( c >> 4, 16 ) );
+					mOut.write( Character.forDigit( c & 0xF, 16 ) );
+				} else {
+					mOut.write( c );
+				}
+			}
+		}
+		mOut.write( '"' );
+	}
+
+	@Override
+	protected void numberValue( int index, String key, String value ) throws IOException {
+		key( index, key );
+		mOut.write( value == null ? "null" : value );
+	}
+
+	private void key( int index, String key ) throws IOException {
+		if ( index > 0 ) {
+			mOut.write( ',' );
+		}
+		// Keys are plain ASCII identifiers; no escaping required.
+		mOut.write( '"' );
+		mOut.write( key );
+		mOut.write( "\":" );
+	}
+}
@@ -0,0 +1,101 @@
+package com.jotabout.screeninfo;
+
+/**
+ * ScreenInfo
+ *
+ * Display the screen configuration parameters for an Android device.
+ *
+ * Copyright (c) 2011 Michael J. Portuesi (http://www.jotabout.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+import android.app.Activity;
+import android.os.Bundle;
+import android.view.View;
+import android.view.WindowManager;
+import android.widget.TextView;
+
+/**
+ * Shows the current Screen snapshot full-screen as a QR code, so that a
+ * scanning bench can collect reports from locked-down devices.
+ *
+ * The time spent encoding the snapshot and filling the symbol bitmap is
+ * shown against the frame budget at the display's refresh rate; the wait
+ * for the next vsync is not included.  Tap to re-encode.
+ */
+public class QrCodeActivity extends Activity {
+
+	//////////////////////////////////////////////////////////////////////////
+	// State
+	//////////////////////////////////////////////////////////////////////////
+
+	private final QrEncoder mEncoder = new QrEncoder();
+	private final byte[] mPayload = new byte[SnapshotCodec.MAX_LENGTH];
+
+	private Screen mScreen;
+	private QrCodeView mCode;
+	private TextView mTiming;
+	private int mPayloadLength;
+
+	//////////////////////////////////////////////////////////////////////////
+	// Activity Lifecycle
+	//////////////////////////////////////////////////////////////////////////
+
+	@Override
+	public void onCreate(Bundle savedInstanceState) {
+		super.onCreate(savedInstanceState);
+		getWindow().addFlags( WindowManager.LayoutParams.FLAG_FULLSCREEN
+				| WindowManager.LayoutParams.FLAG_KEEP_SCREEN_ON );
+		WindowManager.LayoutParams lp = getWindow().getAttributes();
+		lp.screenBrightness = WindowManager.LayoutParams.BRIGHTNESS_OVERRIDE_FULL;
+		getWindow().setAttributes( lp );
+		setContentView(R.layout.qr_code);
+
+		mScreen = new Screen(this);
+		mTiming = (TextView) findViewById(R.id.qr_timing);
+		mCode = (QrCodeView) findViewById(R.id.qr_code);
+		mCode.setOnClickListener( new View.OnClickListener() {
+			@Override
+			public void onClick(View v) {
+				encode();
+			}
+		} );
+
+		encode();
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Private
+	//////////////////////////////////////////////////////////////////////////
+
+	private void encode() {
+		long start = System.nanoTime();
+		mPayloadLength = SnapshotCodec.encode( mScreen, mPayload );
+		mEncoder.encode( mPayload, mPayloadLength );
+		mCode.setSymbol( mEncoder );
+		showTiming( System.nanoTime() - start );
+	}
+
+	private void showTiming( long elapsedNanos ) {
+		float budgetMillis = 1000.0f / mScreen.refreshRate();
+		mTiming.setText( getString( R.string.qr_timing, mPayloadLength, mEncoder.version(),
+				elapsedNanos / 1e6f, budgetMillis ) );
+	}
+}
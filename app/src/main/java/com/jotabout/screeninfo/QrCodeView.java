@@ -0,0 +1,104 @@
+package com.jotabout.screeninfo;
+
+/**
+ * ScreenInfo
+ *
+ * Display the screen configuration parameters for an Android device.
+ *
+ * Copyright (c) 2011 Michael J. Portuesi (http://www.jotabout.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.util.AttributeSet;
+import android.view.View;
+
+/**
+ * Draws a QR symbol as large as fits, centered on a white background.
+ *
+ * Modules are copied into a one-pixel-per-module bitmap, which is then
+ * scaled up without filtering.  The pixel buffer and bitmap are sized for
+ * the largest symbol and allocated once.
+ */
+public class QrCodeView extends View {
+
+	private static final int QUIET_ZONE = 4;
+	private static final int MAX_DIMENSION = QrEncoder.MAX_SIZE + 2 * QUIET_ZONE;
+
+	private final int[] mPixels = new int[MAX_DIMENSION * MAX_DIMENSION];
+	private final Bitmap mBitmap = Bitmap.createBitmap( MAX_DIMENSION, MAX_DIMENSION, Bitmap.Config.ARGB_8888 );
+	private final Rect mSource = new Rect();
+	private final Rect mDest = new Rect();
+	private final Paint mPaint = new Paint();
+
+	private int mDimension;
+
+	public QrCodeView( Context context ) {
+		super( context );
+	}
+
+	public QrCodeView( Context context, AttributeSet attrs ) {
+		super( context, attrs );
+	}
+
+	/**
+	 * Copy the symbol most recently encoded by the encoder into the bitmap
+	 * and schedule a redraw.  The copy is done here, on the caller's
+	 * clock, so that it can be timed apart from the wait for vsync.
+	 */
+	public void setSymbol( QrEncoder encoder ) {
+		int size = encoder.size();
+		mDimension = size + 2 * QUIET_ZONE;
+
+		for ( int y = 0; y < mDimension; y++ ) {
+			int row = y * mDimension;
+			for ( int x = 0; x < mDimension; x++ ) {
+				int mx = x - QUIET_ZONE;
+				int my = y - QUIET_ZONE;
+				boolean dark = mx >= 0 && my >= 0 && mx < size && my < size && encoder.isDark( mx, my );
+				mPixels[row + x] = dark ? Color.BLACK : Color.WHITE;
+			}
+		}
+		mBitmap.setPixels( mPixels, 0, mDimension, 0, 0, mDimension, mDimension );
+		mSource.set( 0, 0, mDimension, mDimension );
+		invalidate();
+	}
+
+	@Override
+	protected void onDraw( Canvas canvas ) {
+		canvas.drawColor( Color.WHITE );
+		if ( mDimension == 0 ) {
+			return;
+		}
+
+		// Largest whole number of pixels per module that fits
+		int scale = Math.max( 1, Math.min( getWidth(), getHeight() ) / mDimension );
+		int extent = scale * mDimension;
+		int left = ( getWidth() - extent ) / 2;
+		int top = ( getHeight() - extent ) / 2;
+		mDest.set( left, top, left + extent, top + extent );
+		canvas.drawBitmap( mBitmap, mSource, mDest, mPaint );
+	}
+}
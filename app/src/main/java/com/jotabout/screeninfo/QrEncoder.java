@@ -0,0 +1,541 @@
+package com.jotabout.screeninfo;
+
+/**
+ * ScreenInfo
+ *
+ * Display the screen configuration parameters for an Android device.
+ *
+ * Copyright (c) 2011 Michael J. Portuesi (http://www.jotabout.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+/**
+ * Minimal, self-contained QR Code encoder (ISO/IEC 18004) for binary
+ * payloads: byte mode, error correction level M, versions 1 through
+ * MAX_VERSION, with automatic mask selection.
+ *
+ * All working storage is allocated once, in the constructor, for the
+ * largest supported symbol, so encode() does not allocate.  An encoder
+ * instance is not thread-safe.
+ */
+public class QrEncoder {
+
+	//////////////////////////////////////////////////////////////////////////
+	// Constants
+	//////////////////////////////////////////////////////////////////////////
+
+	public static final int MAX_VERSION = 10;
+	public static final int MAX_SIZE = MAX_VERSION * 4 + 17;
+
+	// Error correction level M, indexed by version (index 0 unused)
+	private static final int[] ECC_CODEWORDS_PER_BLOCK = { -1, 10, 16, 26, 18, 24, 16, 18, 22, 22, 26 };
+	private static final int[] NUM_ECC_BLOCKS = { -1, 1, 1, 1, 2, 2, 4, 4, 4, 5, 5 };
+	private static final int FORMAT_BITS_LEVEL_M = 0;
+
+	private static final int MODE_BYTE = 0x4;
+
+	private static final int PENALTY_N1 = 3;
+	private static final int PENALTY_N2 = 3;
+	private static final int PENALTY_N3 = 40;
+	private static final int PENALTY_N4 = 10;
+
+	//////////////////////////////////////////////////////////////////////////
+	// State
+	//////////////////////////////////////////////////////////////////////////
+
+	private final boolean[] mModules = new boolean[MAX_SIZE * MAX_SIZE];
+	private final boolean[] mFunction = new boolean[MAX_SIZE * MAX_SIZE];
+	private final byte[] mData = new byte[rawCodewords( MAX_VERSION )];
+	private final byte[] mCodewords = new byte[rawCodewords( MAX_VERSION )];
+	private final byte[] mEcc = new byte[32];
+	private final byte[] mDivisor = new byte[32];
+	private final int[] mAlignment = new int[7];
+
+	private int mVersion;
+	private int mSize;
+	private int mDivisorDegree;
+
+	//////////////////////////////////////////////////////////////////////////
+	// Public
+	//////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Largest payload, in bytes, that fits in a MAX_VERSION symbol.
+	 */
+	public static int maxPayload() {
+		// Less the 4-bit mode indicator and 16-bit character count
+		return ( dataCodewords( MAX_VERSION ) * 8 - 20 ) / 8;
+	}
+
+	/**
+	 * Encode a payload into a symbol of the smallest version that fits.
+	 * Returns the symbol size in modules (without quiet zone).
+	 *
+	 * @throws IllegalArgumentException if the payload is too large
+	 */
+	public int encode( byte[] payload, int length ) {
+		mVersion = 0;
+		for ( int v = 1; v <= MAX_VERSION; v++ ) {
+			int countBits = v <= 9 ? 8 : 16;
+			if ( 4 + countBits + length * 8 <= dataCodewords( v ) * 8 ) {
+				mVersion = v;
+				break;
+			}
+		}
+		if ( mVersion == 0 ) {
+			throw new IllegalArgumentException( "Payload too large for QR version " + MAX_VERSION );
+		}
+		mSize = mVersion * 4 + 17;
+
+		int dataLength = dataCodewords( mVersion );
+		writeDataCodewords( payload, length, dataLength );
+		int rawLength = addEccAndInterleave( dataLength );
+
+		clear();
+		drawFunctionPatterns();
+		drawCodewords( rawLength );
+
+		// Choose the mask with the lowest penalty
+		int bestMask = 0;
+		int bestPenalty = Integer.MAX_VALUE;
+		for ( int mask = 0; mask < 8; mask++ ) {
+			applyMask( mask );
+			drawFormatBits( mask );
+			int penalty = penalty();
+			if ( penalty < bestPenalty ) {
+				bestMask = mask;
+				bestPenalty = penalty;
+			}
+			applyMask( mask );	// XOR again to undo
+		}
+		applyMask( bestMask );
+		drawFormatBits( bestMask );
+
+		return mSize;
+	}
+
+	/**
+	 * Symbol size in modules, as of the last encode().
+	 */
+	public int size() {
+		return mSize;
+	}
+
+	/**
+	 * Version of the last encoded symbol.
+	 */
+	public int version() {
+		return mVersion;
+	}
+
+	/**
+	 * True if the module at (x, y) is dark.
+	 */
+	public boolean isDark( int x, int y ) {
+		return mModules[y * mSize + x];
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Codewords
+	//////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Segment header, payload, terminator and pad bytes.
+	 */
+	private void writeDataCodewords( byte[] payload, int length, int dataLength ) {
+		for ( int i = 0; i < dataLength; i++ ) {
+			mData[i] = 0;
+		}
+
+		int bit = 0;
+		bit = appendBits( MODE_BYTE, 4, bit );
+		bit = appendBits( length, mVersion <= 9 ? 8 : 16, bit );
+		for ( int i = 0; i < length; i++ ) {
+			bit = appendBits( payload[i] & 0xFF, 8, bit );
+		}
+
+		// Terminator (up to four zero bits), then pad to a byte boundary
+		bit = Math.min( bit + 4, dataLength * 8 );
+		bit = ( bit + 7 ) & ~7;
+
+		for ( int pad = 0xEC; bit < dataLength * 8; pad ^= 0xEC ^ 0x11 ) {
+			bit = appendBits( pad, 8, bit );
+		}
+	}
+
+	private int appendBits( int value, int count, int bit ) {
+		for ( int i = count - 1; i >= 0; i--, bit++ ) {
+			if ( ( ( value >>> i ) & 1 ) != 0 ) {
+				mData[bit >>> 3] |= 0x80 >>> ( bit & 7 );
+			}
+		}
+		return bit;
+	}
+
+	/**
+	 * Split the data into blocks, append Reed-Solomon ECC to each, and
+	 * interleave the blocks into mCodewords.  Returns the codeword count.
+	 */
+	private int addEccAndInterleave( int dataLength ) {
+		int numBlocks = NUM_ECC_BLOCKS[mVersion];
+		int eccLength = ECC_CODEWORDS_PER_BLOCK[mVersion];
+		int rawLength = rawCodewords( mVersion );
+		int numShortBlocks = numBlocks - rawLength % numBlocks;
+		int shortDataLength = rawLength / numBlocks - eccLength;
+
+		computeDivisor( eccLength );
+
+		// Interleave data codewords: column by column across blocks
+		int out = 0;
+		for ( int i = 0; i <= shortDataLength; i++ ) {
+			int offset = 0;
+			for ( int b = 0; b < numBlocks; b++ ) {
+				int blockLength = shortDataLength + ( b < numShortBlocks ? 0 : 1 );
+				if ( i < blockLength ) {
+					mCodewords[out++] = mData[offset + i];
+				}
+				offset += blockLength;
+			}
+		}
+
+		// ECC codewords: one block at a time into place
+		int offset = 0;
+		for ( int b = 0; b < numBlocks; b++ ) {
+			int blockLength = shortDataLength + ( b < numShortBlocks ? 0 : 1 );
+			computeRemainder( offset, blockLength, eccLength );
+			for ( int i = 0; i < eccLength; i++ ) {
+				mCodewords[dataLength + i * numBlocks + b] = mEcc[i];
+			}
+			offset += blockLength;
+		}
+
+		return rawLength;
+	}
+
+	private void computeDivisor( int degree ) {
+		if ( mDivisorDegree == degree ) {
+			return;
+		}
+		for ( int i = 0; i < degree; i++ ) {
+			mDivisor[i] = 0;
+		}
+		mDivisor[degree - 1] = 1;
+		int root = 1;
+		for ( int i = 0; i < degree; i++ ) {
+			for ( int j = 0; j < degree; j++ ) {
+				mDivisor[j] = (byte) multiply( mDivisor[j] & 0xFF, root );
+				if ( j + 1 < degree ) {
+					mDivisor[j] ^= mDivisor[j + 1];
+				}
+			}
+			root = multiply( root, 0x02 );
+		}
+		mDivisorDegree = degree;
+	}
+
+	private void computeRemainder( int offset, int length, int degree ) {
+		for ( int i = 0; i < degree; i++ ) {
+			mEcc[i] = 0;
+		}
+		for ( int k = 0; k < length; k++ ) {
+			int factor = ( mData[offset + k] ^ mEcc[0] ) & 0xFF;
+			for ( int i = 0; i < degree - 1; i++ ) {
+				mEcc[i] = mEcc[i + 1];
+			}
+			mEcc[degree - 1] = 0;
+			for ( int i = 0; i < degree; i++ ) {
+				mEcc[i] ^= multiply( mDivisor[i] & 0xFF, factor );
+			}
+		}
+	}
+
+	/**
+	 * Multiplication in GF(2^8) modulo x^8 + x^4 + x^3 + x^2 + 1.
+	 */
+	static int multiply( int x, int y ) {
+		int z = 0;
+		for ( int i = 7; i >= 0; i-- ) {
+			z = ( z << 1 ) ^ ( ( z >>> 7 ) * 0x11D );
+			z ^= ( ( y >>> i ) & 1 ) * x;
+		}
+		return z;
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Modules
+	//////////////////////////////////////////////////////////////////////////
+
+	private void clear() {
+		int count = mSize * mSize;
+		for ( int i = 0; i < count; i++ ) {
+			mModules[i] = false;
+			mFunction[i] = false;
+		}
+	}
+
+	private void drawFunctionPatterns() {
+		// Timing patterns
+		for ( int i = 0; i < mSize; i++ ) {
+			setFunction( 6, i, i % 2 == 0 );
+			setFunction( i, 6, i % 2 == 0 );
+		}
+
+		// Finder patterns (with separators)
+		drawFinder( 3, 3 );
+		drawFinder( mSize - 4, 3 );
+		drawFinder( 3, mSize - 4 );
+
+		// Alignment patterns, skipping the three finder corners
+		int count = alignmentPositions();
+		for ( int i = 0; i < count; i++ ) {
+			for ( int j = 0; j < count; j++ ) {
+				if ( ( i == 0 && j == 0 ) || ( i == 0 && j == count - 1 ) || ( i == count - 1 && j == 0 ) ) {
+					continue;
+				}
+				drawAlignment( mAlignment[i], mAlignment[j] );
+			}
+		}
+
+		// Reserve the format areas; real bits are drawn after masking
+		drawFormatBits( 0 );
+		drawVersion();
+	}
+
+	private void drawFinder( int cx, int cy ) {
+		for ( int dy = -4; dy <= 4; dy++ ) {
+			for ( int dx = -4; dx <= 4; dx++ ) {
+				int dist = Math.max( Math.abs( dx ), Math.abs( dy ) );
+				int x = cx + dx;
+				int y = cy + dy;
+				if ( 0 <= x && x < mSize && 0 <= y && y < mSize ) {
+					setFunction( x, y, dist != 2 && dist != 4 );
+				}
+			}
+		}
+	}
+
+	private void drawAlignment( int cx, int cy ) {
+		for ( int dy = -2; dy <= 2; dy++ ) {
+			for ( int dx = -2; dx <= 2; dx++ ) {
+				setFunction( cx + dx, cy + dy, Math.max( Math.abs( dx ), Math.abs( dy ) ) != 1 );
+			}
+		}
+	}
+
+	private void drawFormatBits( int mask ) {
+		int data = FORMAT_BITS_LEVEL_M << 3 | mask;
+		int rem = data;
+		for ( int i = 0; i < 10; i++ ) {
+			rem = ( rem << 1 ) ^ ( ( rem >>> 9 ) * 0x537 );
+		}
+		int bits = ( data << 10 | rem ) ^ 0x5412;
+
+		// First copy, around the top-left finder
+		for ( int i = 0; i <= 5; i++ ) {
+			setFunction( 8, i, bit( bits, i ) );
+		}
+		setFunction( 8, 7, bit( bits, 6 ) );
+		setFunction( 8, 8, bit( bits, 7 ) );
+		setFunction( 7, 8, bit( bits, 8 ) );
+		for ( int i = 9; i < 15; i++ ) {
+			setFunction( 14 - i, 8, bit( bits, i ) );
+		}
+
+		// Second copy, split between the other two finders
+		for ( int i = 0; i < 8; i++ ) {
+			setFunction( mSize - 1 - i, 8, bit( bits, i ) );
+		}
+		for ( int i = 8; i < 15; i++ ) {
+			setFunction( 8, mSize - 15 + i, bit( bits, i ) );
+		}
+		setFunction( 8, mSize - 8, true );	// Always dark
+	}
+
+	private void drawVersion() {
+		if ( mVersion < 7 ) {
+			return;
+		}
+		int rem = mVersion;
+		for ( int i = 0; i < 12; i++ ) {
+			rem = ( rem << 1 ) ^ ( ( rem >>> 11 ) * 0x1F25 );
+		}
+		int bits = mVersion << 12 | rem;
+
+		for ( int i = 0; i < 18; i++ ) {
+			boolean dark = bit( bits, i );
+			int a = mSize - 11 + i % 3;
+			int b = i / 3;
+			setFunction( a, b, dark );
+			setFunction( b, a, dark );
+		}
+	}
+
+	/**
+	 * Place codeword bits in the zigzag order, two columns at a time from
+	 * the right, skipping function modules and the vertical timing column.
+	 */
+	private void drawCodewords( int length ) {
+		int i = 0;
+		for ( int right = mSize - 1; right >= 1; right -= 2 ) {
+			if ( right == 6 ) {
+				right = 5;
+			}
+			boolean upward = ( ( right + 1 ) & 2 ) == 0;
+			for ( int vert = 0; vert < mSize; vert++ ) {
+				int y = upward ? mSize - 1 - vert : vert;
+				for ( int j = 0; j < 2; j++ ) {
+					int x = right - j;
+					int index = y * mSize + x;
+					if ( !mFunction[index] && i < length * 8 ) {
+						mModules[index] = bit( mCodewords[i >>> 3], 7 - ( i & 7 ) );
+						i++;
+					}
+				}
+			}
+		}
+	}
+
+	private void applyMask( int mask ) {
+		for ( int y = 0; y < mSize; y++ ) {
+			for ( int x = 0; x < mSize; x++ ) {
+				boolean invert;
+				switch ( mask ) {
+				case 0:  invert = ( x + y ) % 2 == 0; break;
+				case 1:  invert = y % 2 == 0; break;
+				case 2:  invert = x % 3 == 0; break;
+				case 3:  invert = ( x + y ) % 3 == 0; break;
+				case 4:  invert = ( x / 3 + y / 2 ) % 2 == 0; break;
+				case 5:  invert = x * y % 2 + x * y % 3 == 0; break;
+				case 6:  invert = ( x * y % 2 + x * y % 3 ) % 2 == 0; break;
+				default: invert = ( ( x + y ) % 2 + x * y % 3 ) % 2 == 0; break;
+				}
+				int index = y * mSize + x;
+				if ( invert && !mFunction[index] ) {
+					mModules[index] = !mModules[index];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Penalty score of the current symbol (lower is better).
+	 */
+	private int penalty() {
+		int result = 0;
+
+		// N1 (runs of five or more) and N3 (finder-like patterns), rows then columns
+		for ( int pass = 0; pass < 2; pass++ ) {
+			for ( int a = 0; a < mSize; a++ ) {
+				int run = 0;
+				boolean runColor = false;
+				int pattern = 0;
+				for ( int b = 0; b < mSize; b++ ) {
+					boolean dark = pass == 0 ? isDark( b, a ) : isDark( a, b );
+					if ( b > 0 && dark == runColor ) {
+						run++;
+						if ( run == 5 ) {
+							result += PENALTY_N1;
+						} else if ( run > 5 ) {
+							result++;
+						}
+					} else {
+						runColor = dark;
+						run = 1;
+					}
+
+					// 1:1:3:1:1 dark/light pattern with four light modules on either side
+					pattern = ( ( pattern << 1 ) | ( dark ? 1 : 0 ) ) & 0x7FF;
+					if ( b >= 10 && ( pattern == 0x05D || pattern == 0x5D0 ) ) {
+						result += PENALTY_N3;
+					}
+				}
+			}
+		}
+
+		// N2 (2x2 blocks of one color)
+		for ( int y = 0; y < mSize - 1; y++ ) {
+			for ( int x = 0; x < mSize - 1; x++ ) {
+				boolean color = isDark( x, y );
+				if ( color == isDark( x + 1, y ) && color == isDark( x, y + 1 ) && color == isDark( x + 1, y + 1 ) ) {
+					result += PENALTY_N2;
+				}
+			}
+		}
+
+		// N4 (dark/light balance)
+		int dark = 0;
+		int total = mSize * mSize;
+		for ( int i = 0; i < total; i++ ) {
+			if ( mModules[i] ) {
+				dark++;
+			}
+		}
+		int k = ( Math.abs( dark * 20 - total * 10 ) + total - 1 ) / total - 1;
+		result += Math.max( 0, k ) * PENALTY_N4;
+
+		return result;
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Private
+	//////////////////////////////////////////////////////////////////////////
+
+	private void setFunction( int x, int y, boolean dark ) {
+		int index = y * mSize + x;
+		mModules[index] = dark;
+		mFunction[index] = true;
+	}
+
+	private int alignmentPositions() {
+		if ( mVersion == 1 ) {
+			return 0;
+		}
+		int count = mVersion / 7 + 2;
+		int step = ( mVersion * 8 + count * 3 + 5 ) / ( count * 4 - 4 ) * 2;
+		mAlignment[0] = 6;
+		for ( int i = count - 1, pos = mSize - 7; i >= 1; i--, pos -= step ) {
+			mAlignment[i] = pos;
+		}
+		return count;
+	}
+
+	private static boolean bit( int value, int i ) {
+		return ( ( value >>> i ) & 1 ) != 0;
+	}
+
+	/**
+	 * Number of data + ECC codewords in a symbol of the given version.
+	 */
+	private static int rawCodewords( int version ) {
+		int modules = ( 16 * version + 128 ) * version + 64;
+		if ( version >= 2 ) {
+			int count = version / 7 + 2;
+			modules -= ( 25 * count - 10 ) * count - 55;
+			if ( version >= 7 ) {
+				modules -= 36;
+			}
+		}
+		return modules / 8;
+	}
+
+	private static int dataCodewords( int version ) {
+		return rawCodewords( version ) - ECC_CODEWORDS_PER_BLOCK[version] * NUM_ECC_BLOCKS[version];
+	}
+}
@@ -0,0 +1,433 @@
+package com.jotabout.screeninfo;
+
+/**
+ * ScreenInfo
+ *
+ * Display the screen configuration parameters for an Android device.
+ *
+ * Copyright (c) 2011 Michael J. Portuesi (http://www.jotabout.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Mergeable streaming quantile sketch (KLL), for percentiles over more
+ * values than can be kept and sorted.
+ *
+ * Values are held in a stack of compactors; an item at level h stands for
+ * 2^h inputs.  When the sketch is full, the lowest over-capacity level is
+ * sorted and every other item (from a random offset) promoted one level up.
+ * Capacities shrink geometrically towards the bottom, so memory is about
+ * 3k items regardless of stream length, and the worst rank error is on the
+ * order of 2/k of n (see tools/QuantileSketchBenchmark for measured figures).
+ *
+ * Sketches of the same k can be merged, e.g. per-thread partial aggregates,
+ * and written to and read back from a stream for merging across processes.
+ * Not thread-safe.  Pure Java, so it can also be used off-device.
+ */
+public class QuantileSketch {
+
+	//////////////////////////////////////////////////////////////////////////
+	// Constants
+	//////////////////////////////////////////////////////////////////////////
+
+	public final static int DEFAULT_K = 200;
+
+	private final static int MIN_CAPACITY = 2;
+	private final static double CAPACITY_RATIO = 2.0 / 3.0;
+	private final static int MAX_LEVELS = 61;
+
+	//////////////////////////////////////////////////////////////////////////
+	// State
+	//////////////////////////////////////////////////////////////////////////
+
+	private final int mK;
+	private double[][] mLevels = new double[1][];
+	private int[] mSizes = new int[1];
+	private int[] mCapacities = new int[1];
+	private int mLevelCount = 1;
+	private int mTotalCapacity;
+	private int mRetained;
+	private long mCount;
+	private double mMin = Double.NaN;
+	private double mMax = Double.NaN;
+	private long mRandom = 0x9E3779B97F4A7C15L;
+
+	public QuantileSketch() {
+		this( DEFAULT_K );
+	}
+
+	/**
+	 * @param k accuracy parameter; larger is more accurate and larger
+	 */
+	public QuantileSketch( int k ) {
+		if ( k < 8 || k > 65535 ) {
+			throw new IllegalArgumentException( "k out of range: " + k );
+		}
+		mK = k;
+		updateCapacities();
+		mLevels[0] = new double[mCapacities[0]];
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Public
+	//////////////////////////////////////////////////////////////////////////
+
+	public int k() {
+		return mK;
+	}
+
+	/**
+	 * Number of values added, including those merged in.
+	 */
+	public long count() {
+		return mCount;
+	}
+
+	/**
+	 * Smallest value seen, or NaN if empty.
+	 */
+	public double min() {
+		return mMin;
+	}
+
+	/**
+	 * Largest value seen, or NaN if empty.
+	 */
+	public double max() {
+		return mMax;
+	}
+
+	/**
+	 * Number of values currently retained (a measure of memory use).
+	 */
+	public int retained() {
+		return mRetained;
+	}
+
+	/**
+	 * Add a value.  NaN is ignored.
+	 */
+	public void add( double value ) {
+		if ( Double.isNaN( value ) ) {
+			return;
+		}
+		if ( mCount++ == 0 ) {
+			mMin = mMax = value;
+		} else {
+			mMin = Math.min( mMin, value );
+			mMax = Math.max( mMax, value );
+		}
+		append( 0, value );
+		if ( mRetained >= mTotalCapacity ) {
+			compress();
+		}
+	}
+
+	/**
+	 * Fold another sketch into this one.  The other sketch is unchanged.
+	 * Merging a sketch into itself doubles the weight of every item.
+	 */
+	public void merge( QuantileSketch other ) {
+		if ( other.mK != mK ) {
+			throw new IllegalArgumentException( "Cannot merge k=" + other.mK + " into k=" + mK );
+		}
+		if ( other.mCount == 0 ) {
+			return;
+		}
+		if ( mCount == 0 ) {
+			mMin = other.mMin;
+			mMax = other.mMax;
+		} else {
+			mMin = Math.min( mMin, other.mMin );
+			mMax = Math.max( mMax, other.mMax );
+		}
+		mCount += other.mCount;
+
+		// Sizes are read before appending, as other may be this sketch
+		int levels = other.mLevelCount;
+		for ( int h = 0; h < levels; h++ ) {
+			int size = other.mSizes[h];
+			for ( int i = 0; i < size; i++ ) {
+				append( h, other.mLevels[h][i] );
+			}
+		}
+		compress();
+	}
+
+	/**
+	 * Estimated value at the given quantile (0 = min, 1 = max), or NaN if
+	 * the sketch is empty.
+	 */
+	public double quantile( double q ) {
+		if ( mCount == 0 ) {
+			return Double.NaN;
+		}
+		if ( q <= 0 ) {
+			return mMin;
+		}
+		if ( q >= 1 ) {
+			return mMax;
+		}
+
+		int retained = mRetained;
+		double[] values = new double[retained];
+		long[] weights = new long[retained];
+		sortedItems( values, weights );
+
+		double target = q * mCount;
+		long cumulative = 0;
+		for ( int i = 0; i < retained; i++ ) {
+			cumulative += weights[i];
+			if ( cumulative >= target ) {
+				return values[i];
+			}
+		}
+		return mMax;
+	}
+
+	/**
+	 * Estimated values at each of the given quantiles, in one pass.
+	 * Quantiles must be in ascending order.
+	 */
+	public double[] quantiles( double[] qs ) {
+		double[] out = new double[qs.length];
+		if ( mCount == 0 ) {
+			Arrays.fill( out, Double.NaN );
+			return out;
+		}
+
+		int retained = mRetained;
+		double[] values = new double[retained];
+		long[] weights = new long[retained];
+		sortedItems( values, weights );
+
+		long cumulative = 0;
+		int i = 0;
+		for ( int j = 0; j < qs.length; j++ ) {
+			if ( qs[j] <= 0 ) {
+				out[j] = mMin;
+				continue;
+			}
+			double target = qs[j] * mCount;
+			while ( i < retained && cumulative + weights[i] < target ) {
+				cumulative += weights[i++];
+			}
+			out[j] = i < retained ? values[i] : mMax;
+		}
+		return out;
+	}
+
+	/**
+	 * Estimated fraction of values less than or equal to the given value.
+	 */
+	public double rank( double value ) {
+		if ( mCount == 0 ) {
+			return Double.NaN;
+		}
+		long weight = 0;
+		for ( int h = 0; h < mLevelCount; h++ ) {
+			for ( int i = 0; i < mSizes[h]; i++ ) {
+				if ( mLevels[h][i] <= value ) {
+					weight += 1L << h;
+				}
+			}
+		}
+		return (double) weight / mCount;
+	}
+
+	/**
+	 * Write the sketch in a compact form that read() accepts.
+	 */
+	public void write( DataOutput out ) throws IOException {
+		out.writeShort( mK );
+		out.writeLong( mCount );
+		out.writeDouble( mMin );
+		out.writeDouble( mMax );
+		out.writeByte( mLevelCount );
+		for ( int h = 0; h < mLevelCount; h++ ) {
+			out.writeInt( mSizes[h] );
+			for ( int i = 0; i < mSizes[h]; i++ ) {
+				out.writeDouble( mLevels[h][i] );
+			}
+		}
+	}
+
+	/**
+	 * Read a sketch written by write().
+	 */
+	public static QuantileSketch read( DataInput in ) throws IOException {
+		QuantileSketch sketch = new QuantileSketch( in.readUnsignedShort() );
+		sketch.mCount = in.readLong();
+		sketch.mMin = in.readDouble();
+		sketch.mMax = in.readDouble();
+		int levels = in.readUnsignedByte();
+		if ( levels < 1 || levels > MAX_LEVELS ) {
+			throw new IOException( "Bad level count: " + levels );
+		}
+		for ( int h = 0; h < levels; h++ ) {
+			int size = in.readInt();
+			if ( size < 0 ) {
+				throw new IOException( "Bad level size: " + size );
+			}
+			for ( int i = 0; i < size; i++ ) {
+				sketch.append( h, in.readDouble() );
+			}
+		}
+		return sketch;
+	}
+
+	@Override
+	public String toString() {
+		if ( mCount == 0 ) {
+			return "n=0";
+		}
+		double[] q = quantiles( new double[] { 0.5, 0.9, 0.99 } );
+		return String.format( Locale.US, "n=%d min=%.4g p50=%.4g p90=%.4g p99=%.4g max=%.4g",
+				mCount, mMin, q[0], q[1], q[2], mMax );
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Private
+	//////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Recompute per-level capacities for the current number of levels:
+	 * k at the top, shrinking by CAPACITY_RATIO per level below it.
+	 */
+	private void updateCapacities() {
+		if ( mCapacities.length < mLevelCount ) {
+			mCapacities = new int[mLevels.length];
+		}
+		mTotalCapacity = 0;
+		for ( int h = 0; h < mLevelCount; h++ ) {
+			int depth = mLevelCount - 1 - h;
+			mCapacities[h] = Math.max( MIN_CAPACITY, (int) Math.ceil( mK * Math.pow( CAPACITY_RATIO, depth ) ) );
+			mTotalCapacity += mCapacities[h];
+		}
+	}
+
+	private void append( int h, double value ) {
+		while ( h >= mLevelCount ) {
+			addLevel();
+		}
+		if ( mSizes[h] == mLevels[h].length ) {
+			mLevels[h] = Arrays.copyOf( mLevels[h], Math.max( MIN_CAPACITY, mLevels[h].length * 2 ) );
+		}
+		mLevels[h][mSizes[h]++] = value;
+		mRetained++;
+	}
+
+	private void addLevel() {
+		if ( mLevelCount == MAX_LEVELS ) {
+			throw new IllegalStateException( "Sketch is full" );
+		}
+		if ( mLevelCount == mLevels.length ) {
+			mLevels = Arrays.copyOf( mLevels, mLevelCount * 2 );
+			mSizes = Arrays.copyOf( mSizes, mLevelCount * 2 );
+		}
+		mLevels[mLevelCount] = new double[MIN_CAPACITY];
+		mSizes[mLevelCount] = 0;
+		mLevelCount++;
+		updateCapacities();
+	}
+
+	/**
+	 * Compact levels until the sketch is within its total capacity.
+	 */
+	private void compress() {
+		while ( mRetained >= mTotalCapacity ) {
+			for ( int h = 0; h < mLevelCount; h++ ) {
+				if ( mSizes[h] >= mCapacities[h] ) {
+					compact( h );
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sort level h and promote every other item to level h + 1.  With an
+	 * odd count, the leftover item stays behind at level h.
+	 */
+	private void compact( int h ) {
+		if ( h + 1 >= mLevelCount ) {
+			addLevel();
+		}
+		double[] items = mLevels[h];
+		int size = mSizes[h];
+		Arrays.sort( items, 0, size );
+
+		int even = size & ~1;
+		for ( int i = nextBit(); i < even; i += 2 ) {
+			append( h + 1, items[i] );
+		}
+		if ( even < size ) {
+			items[0] = items[even];
+		}
+		mSizes[h] = size - even;
+		mRetained -= even;
+	}
+
+	/**
+	 * A pseudo-random bit (xorshift), for the compaction offset.
+	 */
+	private int nextBit() {
+		mRandom ^= mRandom << 13;
+		mRandom ^= mRandom >>> 7;
+		mRandom ^= mRandom << 17;
+		return (int) ( mRandom >>> 63 );
+	}
+
+	/**
+	 * All retained items, sorted by value, with their weights.  Each level
+	 * is sorted separately and merged into the output in turn.
+	 */
+	private void sortedItems( double[] values, long[] weights ) {
+		double[] mergedValues = new double[values.length];
+		long[] mergedWeights = new long[weights.length];
+		int n = 0;
+		for ( int h = 0; h < mLevelCount; h++ ) {
+			int size = mSizes[h];
+			double[] level = Arrays.copyOf( mLevels[h], size );
+			Arrays.sort( level );
+			long weight = 1L << h;
+
+			int i = 0, j = 0, m = 0;
+			while ( i < n || j < size ) {
+				if ( j == size || ( i < n && values[i] <= level[j] ) ) {
+					mergedValues[m] = values[i];
+					mergedWeights[m++] = weights[i++];
+				} else {
+					mergedValues[m] = level[j++];
+					mergedWeights[m++] = weight;
+				}
+			}
+			n = m;
+			System.arraycopy( mergedValues, 0, values, 0, n );
+			System.arraycopy( mergedWeights, 0, weights, 0, n );
+		}
+	}
+}
@@ -0,0 +1,347 @@
+package com.jotabout.screeninfo;
+
+/**
+ * ScreenInfo
+ *
+ * Display the screen configuration parameters for an Android device.
+ *
+ * Copyright (c) 2011 Michael J. Portuesi (http://www.jotabout.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import android.annotation.SuppressLint;
+import android.app.Activity;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+import android.os.SystemClock;
+import android.util.Log;
+
+/**
+ * Headless entry point for device labs.  Builds a Screen snapshot and
+ * returns the report without starting the activity or inflating any views.
+ *
+ * The report is returned as the broadcast result data, so it is printed
+ * by adb:
+ *
+ *   adb shell am broadcast -a com.jotabout.screeninfo.action.DUMP_REPORT \
+ *       -n com.jotabout.screeninfo/.ReportReceiver [--es format text|json|csv]
+ *       [--es file report.txt] [--ei repeat 100000]
+ *
+ * When a file name is given, the report is also written to the app's
+ * external files directory (or internal files directory on API < 8).
+ * A repeat count greater than one runs an export benchmark instead: the
+ * snapshot is streamed that many times as a single batch and the result
+ * data reports throughput, peak heap growth and heap retained after a GC.
+ *
+ * The STRESS action runs the ConfigurationStress harness instead
+ * ([--ei cycles 2000]) and returns its PASS/FAIL summary.
+ *
+ * Reports and benchmarks run on a worker thread (via goAsync, API 11+)
+ * so long exports and stress runs don't block the main thread; the
+ * result is delivered when the work finishes.  goAsync doesn't extend the
+ * broadcast timeout, so repeat and cycles are capped at MAX_REPEAT and
+ * MAX_CYCLES, which keep a run inside it on typical devices.  Any failure
+ * is returned as a cancelled result rather than crashing the process.
+ *
+ * The receiver is protected by the DUMP permission, which the adb shell
+ * holds and ordinary apps cannot obtain.
+ */
+public class ReportReceiver extends BroadcastReceiver {
+
+	//////////////////////////////////////////////////////////////////////////
+	// Constants
+	//////////////////////////////////////////////////////////////////////////
+
+	public final static String ACTION_DUMP_REPORT = "com.jotabout.screeninfo.action.DUMP_REPORT";
+	public final static String ACTION_STRESS = "com.jotabout.screeninfo.action.STRESS";
+	public final static String EXTRA_FILE = "file";
+	public final static String EXTRA_FORMAT = "format";
+	public final static String EXTRA_REPEAT = "repeat";
+	public final static String EXTRA_CYCLES = "cycles";
+
+	public final static String FORMAT_TEXT = "text";
+	public final static String FORMAT_JSON = "json";
+	public final static String FORMAT_CSV = "csv";
+
+	private final static String TAG = "ScreenInfo";
+	private final static int HEAP_SAMPLE_INTERVAL = 1000;
+
+	// Largest runs that fit the broadcast timeout (10 s foreground, 60 s background)
+	public final static int MAX_REPEAT = 100000;
+	public final static int MAX_CYCLES = ConfigurationStress.DEFAULT_CYCLES;
+
+	//////////////////////////////////////////////////////////////////////////
+	// State
+	//////////////////////////////////////////////////////////////////////////
+
+	// Result of the request being handled; a receiver instance serves one broadcast.
+	private int mResultCode = Activity.RESULT_CANCELED;
+	private String mResultData;
+
+	//////////////////////////////////////////////////////////////////////////
+	// BroadcastReceiver
+	//////////////////////////////////////////////////////////////////////////
+
+	@SuppressLint("NewApi")
+	@Override
+	public void onReceive(final Context context, final Intent intent) {
+		if ( !ACTION_STRESS.equals( intent.getAction() )
+				&& !ACTION_DUMP_REPORT.equals( intent.getAction() ) ) {
+			return;
+		}
+
+		if ( Build.VERSION.SDK_INT < 11 ) {
+			handle( context, intent );
+			setResult( mResultCode, mResultData, null );
+			return;
+		}
+
+		final PendingResult pending = goAsync();
+		new Thread( new Runnable() {
+			@Override
+			public void run() {
+				try {
+					handle( context, intent );
+				} finally {
+					pending.setResult( mResultCode, mResultData, null );
+					pending.finish();
+				}
+			}
+		}, "ReportReceiver" ).start();
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Private
+	//////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Handle the request, leaving the result in mResultCode/mResultData.
+	 */
+	private void handle( Context context, Intent intent ) {
+		try {
+			if ( ACTION_STRESS.equals( intent.getAction() ) ) {
+				int cycles = intent.getIntExtra( EXTRA_CYCLES, ConfigurationStress.DEFAULT_CYCLES );
+				if ( cycles < 1 || cycles > MAX_CYCLES ) {
+					throw new IllegalArgumentException( "cycles must be between 1 and " + MAX_CYCLES );
+				}
+				stress( context, cycles );
+				return;
+			}
+
+			long start = SystemClock.elapsedRealtime();
+			String format = intent.getStringExtra( EXTRA_FORMAT );
+			String fileName = intent.getStringExtra( EXTRA_FILE );
+			int repeat = intent.getIntExtra( EXTRA_REPEAT, 1 );
+			if ( repeat < 1 || repeat > MAX_REPEAT ) {
+				throw new IllegalArgumentException( "repeat must be between 1 and " + MAX_REPEAT );
+			}
+			Screen screen = new Screen( context );
+
+			String result;
+			if ( repeat > 1 ) {
+				result = benchmarkExport( context, screen, format, fileName, repeat );
+			} else {
+				result = report( context, screen, format );
+				if ( fileName != null ) {
+					File file = writeReport( context, fileName, result );
+					Log.i( TAG, "Report written to " + file.getAbsolutePath() );
+				}
+			}
+
+			Log.i( TAG, "Report built in " + ( SystemClock.elapsedRealtime() - start ) + " ms" );
+			result( Activity.RESULT_OK, result );
+		} catch ( IOException e ) {
+			Log.e( TAG, "Unable to write report", e );
+			result( Activity.RESULT_CANCELED, e.toString() );
+		} catch ( IllegalArgumentException e ) {
+			result( Activity.RESULT_CANCELED, e.getMessage() );
+		} catch ( RuntimeException e ) {
+			// On the goAsync worker this would otherwise take the process down
+			Log.e( TAG, "Report failed", e );
+			result( Activity.RESULT_CANCELED, e.toString() );
+		}
+	}
+
+	private void result( int code, String data ) {
+		mResultCode = code;
+		mResultData = data;
+	}
+
+	/**
+	 * Run the configuration-change stress harness and return its verdict.
+	 */
+	private void stress( Context ctx, int cycles ) {
+		if ( Build.VERSION.SDK_INT < 17 ) {
+			result( Activity.RESULT_CANCELED, ctx.getString( R.string.unsupported ) );
+			return;
+		}
+
+		ConfigurationStress.Result result = new ConfigurationStress( cycles ).run( ctx );
+		Log.i( TAG, "Configuration stress: " + result );
+		result( result.passed() ? Activity.RESULT_OK : Activity.RESULT_CANCELED, result.toString() );
+	}
+
+	/**
+	 * Build the report for a single snapshot in the requested format.
+	 */
+	private String report( Context ctx, Screen screen, String format ) throws IOException {
+		if ( format == null || FORMAT_TEXT.equals( format ) ) {
+			return screen.summaryText( ctx );
+		}
+
+		StringWriter out = new StringWriter();
+		ScreenReportWriter writer = reportWriter( format, out );
+		writer.begin();
+		writer.write( screen );
+		writer.end();
+		return out.toString();
+	}
+
+	/**
+	 * Export the same snapshot repeatedly as one batch, to a file or to a
+	 * discarding sink, and report throughput and heap use.  Used to check
+	 * that large history exports stream in bounded memory: used heap is
+	 * sampled every HEAP_SAMPLE_INTERVAL records for the peak, and measured
+	 * again after a GC for what the export retained.
+	 */
+	private String benchmarkExport( Context ctx, Screen screen, String format,
+			String fileName, int repeat ) throws IOException {
+		if ( format == null || FORMAT_TEXT.equals( format ) ) {
+			format = FORMAT_JSON;
+		}
+
+		File file = null;
+		Writer out;
+		if ( fileName != null ) {
+			file = new File( reportDirectory( ctx ), new File( fileName ).getName() );
+			out = new BufferedWriter( new OutputStreamWriter( new FileOutputStream( file ), "UTF-8" ) );
+		} else {
+			out = new NullWriter();
+		}
+
+		Runtime runtime = Runtime.getRuntime();
+		runtime.gc();
+		long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+		long heapPeak = heapBefore;
+		long start = SystemClock.elapsedRealtime();
+
+		try {
+			ScreenReportWriter writer = reportWriter( format, out );
+			writer.begin();
+			for ( int i = 0; i < repeat; i++ ) {
+				writer.write( screen );
+				if ( i % HEAP_SAMPLE_INTERVAL == 0 ) {
+					heapPeak = Math.max( heapPeak, runtime.totalMemory() - runtime.freeMemory() );
+				}
+			}
+			writer.end();
+		} finally {
+			out.close();
+		}
+
+		long elapsed = SystemClock.elapsedRealtime() - start;
+		heapPeak = Math.max( heapPeak, runtime.totalMemory() - runtime.freeMemory() );
+		runtime.gc();
+		long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+
+		StringBuilder sb = new StringBuilder();
+		sb.append( "format=" ).append( format )
+		  .append( " records=" ).append( repeat )
+		  .append( " elapsed_ms=" ).append( elapsed )
+		  .append( " records_per_sec=" ).append( elapsed > 0 ? repeat * 1000L / elapsed : repeat )
+		  .append( " heap_peak_kb=" ).append( ( heapPeak - heapBefore ) / 1024 )
+		  .append( " heap_retained_kb=" ).append( ( heapAfter - heapBefore ) / 1024 );
+		if ( file != null ) {
+			sb.append( " bytes=" ).append( file.length() )
+			  .append( " file=" ).append( file.getAbsolutePath() );
+		}
+		return sb.toString();
+	}
+
+	private ScreenReportWriter reportWriter( String format, Writer out ) {
+		if ( FORMAT_JSON.equals( format ) ) {
+			return new JsonReportWriter( out );
+		} else if ( FORMAT_CSV.equals( format ) ) {
+			return new CsvReportWriter( out );
+		}
+		throw new IllegalArgumentException( "Unknown format: " + format );
+	}
+
+	/**
+	 * Write the report to a file in the app's files directory.  Only the
+	 * last path segment of the requested name is honored.
+	 */
+	private File writeReport( Context ctx, String fileName, String report ) throws IOException {
+		File file = new File( reportDirectory( ctx ), new File( fileName ).getName() );
+		Writer out = new OutputStreamWriter( new FileOutputStream( file ), "UTF-8" );
+		try {
+			out.write( report );
+		} finally {
+			out.close();
+		}
+		return file;
+	}
+
+	@SuppressLint("NewApi")
+	private File reportDirectory( Context ctx ) {
+		if ( Build.VERSION.SDK_INT >= 8 ) {
+			File dir = ctx.getExternalFilesDir( null );
+			if ( dir != null ) {
+				return dir;
+			}
+		}
+		return ctx.getFilesDir();
+	}
+
+	/**
+	 * Writer that discards its output, for measuring export cost alone.
+	 */
+	private static class NullWriter extends Writer {
+		@Override
+		public void write( char[] buf, int offset, int count ) {
+		}
+
+		@Override
+		public void write( int c ) {
+		}
+
+		@Override
+		public void write( String str, int offset, int count ) {
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
@@ -0,0 +1,196 @@
+package com.jotabout.screeninfo;
+
+/**
+ * ScreenInfo
+ *
+ * Display the screen configuration parameters for an Android device.
+ *
+ * Copyright (c) 2011 Michael J. Portuesi (http://www.jotabout.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Bundle;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.View;
+import android.widget.TextView;
+
+/**
+ * Calibration ruler: millimetre and inch rulers drawn from the normalized
+ * xdpi/ydpi.  Engineers compare them with a physical ruler and nudge each
+ * axis until they agree; the correction is kept per device and logged and
+ * added to the report when the screen is left.
+ *
+ * Draw timing is shown at most every TIMING_INTERVAL_MILLIS, as the
+ * slowest draw since the last update, so that panning doesn't reformat
+ * and relayout the timing line every frame.  The line is a fixed single
+ * line, so updating it doesn't relayout the rest of the screen either.
+ */
+public class RulerActivity extends Activity {
+
+	//////////////////////////////////////////////////////////////////////////
+	// Constants
+	//////////////////////////////////////////////////////////////////////////
+
+	private final static String TAG = "ScreenInfo";
+	private final static String PREFS_NAME = "ruler";
+	private final static String PREF_X_CORRECTION = "x_correction";
+	private final static String PREF_Y_CORRECTION = "y_correction";
+
+	/** Correction step, as a fraction of the reported dpi */
+	private final static float STEP = 0.0025f;
+
+	private final static long TIMING_INTERVAL_MILLIS = 250;
+
+	//////////////////////////////////////////////////////////////////////////
+	// State
+	//////////////////////////////////////////////////////////////////////////
+
+	private Screen mScreen;
+	private RulerView mRuler;
+	private TextView mInfo;
+	private TextView mTiming;
+	private float mXCorrection;
+	private float mYCorrection;
+	private boolean mChanged;
+
+	// Slowest draw not yet shown, and whether the strips were rebuilt
+	private long mWorstDrawNanos = -1;
+	private boolean mWorstRebuilt;
+	private long mLastTimingMillis;
+
+	private final Runnable mShowTiming = new Runnable() {
+		@Override
+		public void run() {
+			showTiming();
+		}
+	};
+
+	//////////////////////////////////////////////////////////////////////////
+	// Activity Lifecycle
+	//////////////////////////////////////////////////////////////////////////
+
+	@Override
+	public void onCreate(Bundle savedInstanceState) {
+		super.onCreate(savedInstanceState);
+		setContentView(R.layout.ruler);
+
+		mScreen = new Screen(this);
+		SharedPreferences prefs = getSharedPreferences( PREFS_NAME, Context.MODE_PRIVATE );
+		mXCorrection = prefs.getFloat( PREF_X_CORRECTION, 0 );
+		mYCorrection = prefs.getFloat( PREF_Y_CORRECTION, 0 );
+
+		mInfo = (TextView) findViewById(R.id.ruler_info);
+		mTiming = (TextView) findViewById(R.id.ruler_timing);
+		mRuler = (RulerView) findViewById(R.id.ruler);
+		mRuler.setOnDrawnListener( new RulerView.OnDrawnListener() {
+			@Override
+			public void onDrawn(long drawNanos, boolean rebuilt) {
+				if ( mWorstDrawNanos < 0 ) {
+					// First draw since the last update: show it once the interval is up
+					long wait = mLastTimingMillis + TIMING_INTERVAL_MILLIS - SystemClock.uptimeMillis();
+					mTiming.postDelayed( mShowTiming, Math.max( 0, wait ) );
+				}
+				mWorstDrawNanos = Math.max( mWorstDrawNanos, drawNanos );
+				mWorstRebuilt |= rebuilt;
+			}
+		} );
+
+		setCorrectionButton( R.id.ruler_x_minus, -STEP, 0 );
+		setCorrectionButton( R.id.ruler_x_plus, STEP, 0 );
+		setCorrectionButton( R.id.ruler_y_minus, 0, -STEP );
+		setCorrectionButton( R.id.ruler_y_plus, 0, STEP );
+
+		applyCorrection();
+	}
+
+	@Override
+	protected void onPause() {
+		super.onPause();
+		mTiming.removeCallbacks( mShowTiming );
+		mWorstDrawNanos = -1;
+		if ( mChanged ) {
+			mChanged = false;
+			getSharedPreferences( PREFS_NAME, Context.MODE_PRIVATE ).edit()
+				.putFloat( PREF_X_CORRECTION, mXCorrection )
+				.putFloat( PREF_Y_CORRECTION, mYCorrection )
+				.commit();
+			String report = correctionText();
+			Log.i( TAG, "Ruler calibration for " + mScreen.deviceModel() + ": " + report.replace( '\n', ' ' ) );
+			BenchmarkReports.put( getString( R.string.ruler_title ), report );
+		}
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Private
+	//////////////////////////////////////////////////////////////////////////
+
+	private void setCorrectionButton( int id, final float dx, final float dy ) {
+		findViewById( id ).setOnClickListener( new View.OnClickListener() {
+			@Override
+			public void onClick(View v) {
+				mXCorrection += dx;
+				mYCorrection += dy;
+				mChanged = true;
+				applyCorrection();
+			}
+		} );
+	}
+
+	private void showTiming() {
+		mTiming.setText( getString( mWorstRebuilt ? R.string.ruler_timing_rebuilt : R.string.ruler_timing,
+				mWorstDrawNanos / 1e6f, 1000.0f / mScreen.refreshRate() ) );
+		mWorstDrawNanos = -1;
+		mWorstRebuilt = false;
+		mLastTimingMillis = SystemClock.uptimeMillis();
+	}
+
+	private void applyCorrection() {
+		mRuler.setDpi( correctedXdpi(), correctedYdpi() );
+		mInfo.setText( correctionText() );
+	}
+
+	private float correctedXdpi() {
+		return (float) ( mScreen.normalizedXdpi() * ( 1 + mXCorrection ) );
+	}
+
+	private float correctedYdpi() {
+		return (float) ( mScreen.normalizedYdpi() * ( 1 + mYCorrection ) );
+	}
+
+	/**
+	 * Reported and corrected dpi per axis, and the physical size and
+	 * diagonal they imply.
+	 */
+	private String correctionText() {
+		int width = mScreen.realWidthPx() == Screen.UNSUPPORTED ? mScreen.widthPx() : mScreen.realWidthPx();
+		int height = mScreen.realHeightPx() == Screen.UNSUPPORTED ? mScreen.heightPx() : mScreen.realHeightPx();
+		double widthInches = width / correctedXdpi();
+		double heightInches = height / correctedYdpi();
+		double diagonal = Math.sqrt( widthInches * widthInches + heightInches * heightInches );
+		return getString( R.string.ruler_correction,
+				mScreen.normalizedXdpi(), correctedXdpi(), mXCorrection * 100,
+				mScreen.normalizedYdpi(), correctedYdpi(), mYCorrection * 100,
+				widthInches, heightInches, diagonal, diagonal * 25.4 );
+	}
+}
@@ -0,0 +1,366 @@
+package com.jotabout.screeninfo;
+
+/**
+ * ScreenInfo
+ *
+ * Display the screen configuration parameters for an Android device.
+ *
+ * Copyright (c) 2011 Michael J. Portuesi (http://www.jotabout.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.View;
+
+/**
+ * Rulers along the top (x) and left (y) edges of the view, with
+ * millimetres on the outer edge, inches on the inner edge, and a 1 cm grid
+ * between them.  Spacing is computed from the given x and y dpi, so a
+ * physical ruler held against the screen shows how accurate they are.
+ * Drag to pan along both rulers.
+ *
+ * Tick geometry is rendered once per dpi and view size into alpha-only
+ * strip bitmaps, two per ruler: millimetre ticks, which repeat every
+ * 10 mm, and inch ticks, which repeat every inch.  Each strip is one of
+ * its own periods longer than the view, and panning redraws by offsetting
+ * it by the pan modulo that period, so both scales stay in step with the
+ * numbers and grid lines, which are drawn live.  The strips are kept
+ * across instances, one set per orientation, so rotating back and forth
+ * doesn't rebuild them.
+ */
+public class RulerView extends View {
+
+	/**
+	 * Notified after each draw with the time onDraw took.
+	 */
+	public interface OnDrawnListener {
+		void onDrawn( long drawNanos, boolean rebuilt );
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Constants
+	//////////////////////////////////////////////////////////////////////////
+
+	private static final float MM_PER_INCH = 25.4f;
+	private static final float MM_PERIOD_MM = 10.0f;
+	private static final float DEPTH_MM = 16.0f;
+	private static final float TEXT_MM = 2.5f;
+	private static final float MM_LABEL_MM = 8.0f;		// baseline, from the outer edge
+	private static final float INCH_LABEL_MM = 10.0f;
+
+	//////////////////////////////////////////////////////////////////////////
+	// Strip cache
+	//////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Pre-rendered ruler strips for one dpi and view size.
+	 */
+	private static class Strips {
+		float xdpi, ydpi;
+		int width, height;
+		Bitmap mmHorizontal, inchHorizontal;
+		Bitmap mmVertical, inchVertical;
+
+		boolean matches( float x, float y, int w, int h ) {
+			return xdpi == x && ydpi == y && width == w && height == h;
+		}
+	}
+
+	// Indexed by orientation: 0 portrait, 1 landscape
+	private static final Strips[] sStrips = new Strips[2];
+
+	//////////////////////////////////////////////////////////////////////////
+	// State
+	//////////////////////////////////////////////////////////////////////////
+
+	private final Paint mStripPaint = new Paint();
+	private final Paint mTickPaint = new Paint();
+	private final Paint mTextPaint = new Paint( Paint.ANTI_ALIAS_FLAG );
+	private final Paint mRightTextPaint = new Paint( Paint.ANTI_ALIAS_FLAG );
+	private final Paint mGridPaint = new Paint();
+	private final char[] mLabel = new char[8];
+	private float[] mGridLines = new float[0];
+
+	private float mXdpi = 160;
+	private float mYdpi = 160;
+	private float mPanX;
+	private float mPanY;
+	private float mLastTouchX;
+	private float mLastTouchY;
+	private OnDrawnListener mListener;
+
+	public RulerView( Context context ) {
+		super( context );
+		init();
+	}
+
+	public RulerView( Context context, AttributeSet attrs ) {
+		super( context, attrs );
+		init();
+	}
+
+	private void init() {
+		mStripPaint.setColor( Color.BLACK );
+		mTickPaint.setColor( Color.BLACK );
+		mTickPaint.setStrokeWidth( 0 );
+		mTextPaint.setColor( Color.BLACK );
+		mRightTextPaint.setColor( Color.BLACK );
+		mRightTextPaint.setTextAlign( Paint.Align.RIGHT );
+		mGridPaint.setColor( Color.rgb( 0xC0, 0xD8, 0xF0 ) );
+		mGridPaint.setStrokeWidth( 0 );
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Public
+	//////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Set the dots per inch along each axis and redraw.
+	 */
+	public void setDpi( float xdpi, float ydpi ) {
+		mXdpi = xdpi;
+		mYdpi = ydpi;
+		invalidate();
+	}
+
+	public void setOnDrawnListener( OnDrawnListener listener ) {
+		mListener = listener;
+	}
+
+	@Override
+	public boolean onTouchEvent( MotionEvent event ) {
+		switch ( event.getAction() ) {
+		case MotionEvent.ACTION_DOWN:
+			mLastTouchX = event.getX();
+			mLastTouchY = event.getY();
+			return true;
+		case MotionEvent.ACTION_MOVE:
+			// Dragging right/down moves the rulers with the finger
+			mPanX = Math.max( 0, mPanX - ( event.getX() - mLastTouchX ) );
+			mPanY = Math.max( 0, mPanY - ( event.getY() - mLastTouchY ) );
+			mLastTouchX = event.getX();
+			mLastTouchY = event.getY();
+			invalidate();
+			return true;
+		}
+		return super.onTouchEvent( event );
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Drawing
+	//////////////////////////////////////////////////////////////////////////
+
+	@Override
+	protected void onDraw( Canvas canvas ) {
+		long start = System.nanoTime();
+		int width = getWidth();
+		int height = getHeight();
+		if ( width == 0 || height == 0 ) {
+			return;
+		}
+
+		boolean rebuilt = false;
+		int slot = width > height ? 1 : 0;
+		Strips strips = sStrips[slot];
+		if ( strips == null || !strips.matches( mXdpi, mYdpi, width, height ) ) {
+			// Not recycled: a view being torn down may still hold the old pair
+			strips = buildStrips( width, height );
+			sStrips[slot] = strips;
+			rebuilt = true;
+		}
+
+		float xmm = mXdpi / MM_PER_INCH;
+		float ymm = mYdpi / MM_PER_INCH;
+		float depth = DEPTH_MM * ymm;
+		float depthX = DEPTH_MM * xmm;
+		float mmPeriodX = MM_PERIOD_MM * xmm;
+		float mmPeriodY = MM_PERIOD_MM * ymm;
+
+		canvas.drawColor( Color.WHITE );
+		drawGrid( canvas, width, height, depthX, depth, xmm * 10, ymm * 10 );
+
+		// Strips start at the whole period at or before the pan position
+		canvas.save();
+		canvas.clipRect( depthX, 0, width, depth );
+		canvas.drawBitmap( strips.mmHorizontal, depthX - ( mPanX % mmPeriodX ), 0, mStripPaint );
+		canvas.drawBitmap( strips.inchHorizontal, depthX - ( mPanX % mXdpi ), 0, mStripPaint );
+		canvas.restore();
+		canvas.save();
+		canvas.clipRect( 0, depth, depthX, height );
+		canvas.drawBitmap( strips.mmVertical, 0, depth - ( mPanY % mmPeriodY ), mStripPaint );
+		canvas.drawBitmap( strips.inchVertical, 0, depth - ( mPanY % mYdpi ), mStripPaint );
+		canvas.restore();
+
+		mTextPaint.setTextSize( TEXT_MM * ymm );
+		mRightTextPaint.setTextSize( TEXT_MM * ymm );
+		drawLabels( canvas, width, height, depthX, depth, xmm, ymm );
+
+		if ( mListener != null ) {
+			mListener.onDrawn( System.nanoTime() - start, rebuilt );
+		}
+	}
+
+	/**
+	 * Render the strips at the current dpi.  Each is the view's length
+	 * plus one period of its own scale, so any pan offset modulo that
+	 * period is covered.
+	 */
+	private Strips buildStrips( int width, int height ) {
+		Strips strips = new Strips();
+		strips.xdpi = mXdpi;
+		strips.ydpi = mYdpi;
+		strips.width = width;
+		strips.height = height;
+
+		float xmm = mXdpi / MM_PER_INCH;
+		float ymm = mYdpi / MM_PER_INCH;
+		int depthH = (int) Math.ceil( DEPTH_MM * ymm );
+		int depthV = (int) Math.ceil( DEPTH_MM * xmm );
+
+		int lengthH = width + (int) Math.ceil( MM_PERIOD_MM * xmm );
+		strips.mmHorizontal = Bitmap.createBitmap( lengthH, depthH, Bitmap.Config.ALPHA_8 );
+		Canvas h = new Canvas( strips.mmHorizontal );
+		for ( int mm = 0; mm * xmm < lengthH; mm++ ) {
+			float x = mm * xmm;
+			h.drawLine( x, 0, x, mmTickLength( mm ) * ymm, mTickPaint );
+		}
+
+		lengthH = width + (int) Math.ceil( mXdpi );
+		strips.inchHorizontal = Bitmap.createBitmap( lengthH, depthH, Bitmap.Config.ALPHA_8 );
+		h = new Canvas( strips.inchHorizontal );
+		for ( int sixteenth = 0; sixteenth * mXdpi / 16 < lengthH; sixteenth++ ) {
+			float x = sixteenth * mXdpi / 16;
+			h.drawLine( x, depthH, x, depthH - inchTickLength( sixteenth ) * ymm, mTickPaint );
+		}
+		h.drawLine( 0, depthH - 1, lengthH, depthH - 1, mTickPaint );
+
+		int lengthV = height + (int) Math.ceil( MM_PERIOD_MM * ymm );
+		strips.mmVertical = Bitmap.createBitmap( depthV, lengthV, Bitmap.Config.ALPHA_8 );
+		Canvas v = new Canvas( strips.mmVertical );
+		for ( int mm = 0; mm * ymm < lengthV; mm++ ) {
+			float y = mm * ymm;
+			v.drawLine( 0, y, mmTickLength( mm ) * xmm, y, mTickPaint );
+		}
+
+		lengthV = height + (int) Math.ceil( mYdpi );
+		strips.inchVertical = Bitmap.createBitmap( depthV, lengthV, Bitmap.Config.ALPHA_8 );
+		v = new Canvas( strips.inchVertical );
+		for ( int sixteenth = 0; sixteenth * mYdpi / 16 < lengthV; sixteenth++ ) {
+			float y = sixteenth * mYdpi / 16;
+			v.drawLine( depthV, y, depthV - inchTickLength( sixteenth ) * xmm, y, mTickPaint );
+		}
+		v.drawLine( depthV - 1, 0, depthV - 1, lengthV, mTickPaint );
+		return strips;
+	}
+
+	/**
+	 * Tick length in mm for the given millimetre mark.
+	 */
+	private static float mmTickLength( int mm ) {
+		return mm % 10 == 0 ? 5.0f : mm % 5 == 0 ? 3.5f : 2.0f;
+	}
+
+	/**
+	 * Tick length in mm for the given sixteenth-of-an-inch mark.
+	 */
+	private static float inchTickLength( int sixteenth ) {
+		return sixteenth % 16 == 0 ? 5.5f : sixteenth % 8 == 0 ? 4.0f
+				: sixteenth % 4 == 0 ? 3.0f : sixteenth % 2 == 0 ? 2.0f : 1.5f;
+	}
+
+	/**
+	 * Light 1 cm grid over the area between the rulers, into a reused
+	 * line buffer.
+	 */
+	private void drawGrid( Canvas canvas, int width, int height, float left, float top, float cmX, float cmY ) {
+		int columns = (int) ( ( width - left ) / cmX ) + 2;
+		int rows = (int) ( ( height - top ) / cmY ) + 2;
+		int needed = ( columns + rows ) * 4;
+		if ( mGridLines.length < needed ) {
+			mGridLines = new float[needed];
+		}
+
+		int n = 0;
+		float x = left - ( mPanX % cmX );
+		for ( int i = 0; i < columns; i++, x += cmX ) {
+			mGridLines[n++] = x;
+			mGridLines[n++] = top;
+			mGridLines[n++] = x;
+			mGridLines[n++] = height;
+		}
+		float y = top - ( mPanY % cmY );
+		for ( int i = 0; i < rows; i++, y += cmY ) {
+			mGridLines[n++] = left;
+			mGridLines[n++] = y;
+			mGridLines[n++] = width;
+			mGridLines[n++] = y;
+		}
+		canvas.save();
+		canvas.clipRect( left, top, width, height );
+		canvas.drawLines( mGridLines, 0, n, mGridPaint );
+		canvas.restore();
+	}
+
+	/**
+	 * Centimetre and inch numbers for the visible part of each ruler, in
+	 * bands between the millimetre ticks and the inch ticks.
+	 */
+	private void drawLabels( Canvas canvas, int width, int height, float left, float top, float xmm, float ymm ) {
+		float cmX = xmm * 10;
+		float cmY = ymm * 10;
+		float gap = xmm / 2;
+
+		// Top ruler: numbers just right of their ticks
+		for ( int cm = (int) Math.ceil( mPanX / cmX ); left + cm * cmX - mPanX < width; cm++ ) {
+			drawNumber( canvas, mTextPaint, cm, left + cm * cmX - mPanX + gap, MM_LABEL_MM * ymm );
+		}
+		for ( int inch = (int) Math.ceil( mPanX / mXdpi ); left + inch * mXdpi - mPanX < width; inch++ ) {
+			drawNumber( canvas, mTextPaint, inch, left + inch * mXdpi - mPanX + gap, INCH_LABEL_MM * ymm );
+		}
+
+		// Left ruler: centimetres below their ticks, inches above theirs
+		for ( int cm = (int) Math.ceil( mPanY / cmY ); top + cm * cmY - mPanY < height; cm++ ) {
+			drawNumber( canvas, mTextPaint, cm, ( MM_LABEL_MM - TEXT_MM ) * xmm,
+					top + cm * cmY - mPanY + TEXT_MM * ymm );
+		}
+		for ( int inch = (int) Math.ceil( mPanY / mYdpi ); top + inch * mYdpi - mPanY < height; inch++ ) {
+			drawNumber( canvas, mRightTextPaint, inch, INCH_LABEL_MM * xmm,
+					top + inch * mYdpi - mPanY - gap );
+		}
+	}
+
+	/**
+	 * Draw a non-negative integer without allocating a String.
+	 */
+	private void drawNumber( Canvas canvas, Paint paint, int value, float x, float y ) {
+		int start = mLabel.length;
+		do {
+			mLabel[--start] = (char) ( '0' + value % 10 );
+			value /= 10;
+		} while ( value > 0 && start > 0 );
+		canvas.drawText( mLabel, start, mLabel.length - start, x, y, paint );
+	}
+}
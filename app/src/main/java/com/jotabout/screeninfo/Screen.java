@@ -27,6 +27,7 @@ package com.jotabout.screeninfo;
  */
 
 import java.lang.reflect.Method;
+import java.util.List;
 
 import android.annotation.SuppressLint;
 import android.content.Context;
@@ -54,8 +55,8 @@ public class Screen {
 	
 	public static final int UNSUPPORTED = -255;
 
-	private Display mDisplay;
-	private Configuration mConfig;
+	// Display and Configuration are only consulted while constructing;
+	// the snapshot holds no reference to them (or the Context behind them).
 	
 	private int mSizeClass;
 	
@@ -72,6 +73,8 @@ public class Screen {
 	private int densityDpi;
 	private float xdpi;
 	private float ydpi;
+	private double normalizedXdpi;
+	private double normalizedYdpi;
 	private double density;
 	private float scaledDensity;
 
@@ -88,27 +91,28 @@ public class Screen {
         
     private int pixelFormat;
     private float refreshRate;
+    private List<DisplayMode> displayModes;
 
 	@SuppressLint("NewApi")
 	public Screen( Context ctx ) {
 		WindowManager wm = ((WindowManager) ctx.getSystemService(Context.WINDOW_SERVICE));
-		mDisplay = wm.getDefaultDisplay();
-        mConfig = ctx.getResources().getConfiguration();
+		Display display = wm.getDefaultDisplay();
+        Configuration config = ctx.getResources().getConfiguration();
         
         // Screen Size classification
-		mSizeClass = mConfig.screenLayout & Configuration.SCREENLAYOUT_SIZE_MASK;
+		mSizeClass = config.screenLayout & Configuration.SCREENLAYOUT_SIZE_MASK;
 
 		// Usable Screen dimensions
 		try {
-			Method getSizeMethod = mDisplay.getClass().getMethod("getSize", Point.class);
+			Method getSizeMethod = display.getClass().getMethod("getSize", Point.class);
 			Point pt = new Point();
-			getSizeMethod.invoke( mDisplay, pt );
+			getSizeMethod.invoke( display, pt );
 			widthPx = pt.x;
 			heightPx = pt.y;
 		} catch (Exception ignore) {
 			// Use older APIs
-			widthPx = mDisplay.getWidth();
-			heightPx = mDisplay.getHeight();
+			widthPx = display.getWidth();
+			heightPx = display.getHeight();
 		}
 		
 		// Total (real) screen dimensions (as of Android 4.2, API 17)
@@ -124,14 +128,14 @@ public class Screen {
 
 		// Screen sizes in device-independent pixels (dp) (as of API 13)
 		DisplayMetrics metrics = new DisplayMetrics();
-		mDisplay.getMetrics(metrics);
+		display.getMetrics(metrics);
 		heightDp = (int) (((double) ((realHeightPx == UNSUPPORTED) ? heightPx : realHeightPx) / metrics.density) + 0.5);
 
         widthDp = UNSUPPORTED;
         smallestDp = UNSUPPORTED;
         if ( Build.VERSION.SDK_INT >= 13 ) {
-            widthDp = mConfig.screenWidthDp;
-            smallestDp = mConfig.smallestScreenWidthDp;
+            widthDp = config.screenWidthDp;
+            smallestDp = config.smallestScreenWidthDp;
         } else {
         	widthDp = (int) (((double) ((realWidthPx == UNSUPPORTED) ? widthPx : realWidthPx) / metrics.density) + 0.5);
         	smallestDp = ( widthDp <= heightDp ) ? widthDp : heightDp;
@@ -157,6 +161,8 @@ public class Screen {
 		if ( ydpi < 1.0 ) {
 			ydpi =  metrics.densityDpi;
 		}
+		normalizedXdpi = xdpi;
+		normalizedYdpi = ydpi;
 		
 		// Calculate physical screen width/height
 		physicalWidth = ((double) metrics.widthPixels) / xdpi;
@@ -168,25 +174,30 @@ public class Screen {
 		diagonalSizeMillimeters = Math.floor( rawDiagonalSizeInches * 25.4 + 0.5 );
 		
 		// Long/wide
-        screenLayout = mConfig.screenLayout & Configuration.SCREENLAYOUT_LONG_MASK;
+        screenLayout = config.screenLayout & Configuration.SCREENLAYOUT_LONG_MASK;
         
         // Orientation
-        defaultOrientation = mConfig.orientation;
+        defaultOrientation = config.orientation;
         
         // Touchscreen type
-        touchScreen = mConfig.touchscreen;
+        touchScreen = config.touchscreen;
 
         // Current rotation
-        determineCurrentRotation( ctx );
+        determineCurrentRotation( ctx, display );
         
         // Pixel format (deprecated as of Android 4.2, API 17)
         pixelFormat = UNSUPPORTED;
         if ( Build.VERSION.SDK_INT < 17 ) {
-        	pixelFormat = mDisplay.getPixelFormat();
+        	pixelFormat = display.getPixelFormat();
         }
 		
 		// Refresh rate
-        refreshRate = mDisplay.getRefreshRate();
+        refreshRate = display.getRefreshRate();
+
+        // All supported display modes (resolution x refresh rate)
+        displayModes = DisplayMode.supportedModes( display,
+        		(realWidthPx == UNSUPPORTED) ? widthPx : realWidthPx,
+        		(realHeightPx == UNSUPPORTED) ? heightPx : realHeightPx );
 	}
 	
 	/**
@@ -359,6 +370,21 @@ public class Screen {
 		return ydpi;
 	}
 
+	/**
+	 * Physical x dpi used for the physical size calculations: xdpi, or
+	 * densityDpi where the device reports nonsense.
+	 */
+	public double normalizedXdpi() {
+		return normalizedXdpi;
+	}
+
+	/**
+	 * Physical y dpi used for the physical size calculations.
+	 */
+	public double normalizedYdpi() {
+		return normalizedYdpi;
+	}
+
     /**
      * Density factor for px/dp conversions
      */
@@ -544,6 +570,27 @@ public class Screen {
 		return refreshRate;
 	}
 
+	/**
+	 * Display modes supported by the panel
+	 */
+	public List<DisplayMode> displayModes() {
+		return displayModes;
+	}
+
+	/**
+	 * Supported display modes as text (e.g. "1080x1920@60.0, 1080x1920@90.0")
+	 */
+	public String displayModesText() {
+		StringBuilder sb = new StringBuilder();
+		for ( DisplayMode mode : displayModes ) {
+			if ( sb.length() > 0 ) {
+				sb.append( ", " );
+			}
+			sb.append( mode );
+		}
+		return sb.toString();
+	}
+
 	/**
 	 * Return a string containing a text-based summary, suitable
 	 * to share, email, save to SD card, etc.
@@ -578,6 +625,7 @@ public class Screen {
 		  .addLine( R.string.computed_diagonal_size_mm_label, 		diagonalSizeMillimeters() )
 		  .addLine( R.string.pixel_format_label, 					pixelFormatText(ctx) )
 		  .addLine( R.string.refresh_rate_label, 				refreshRate() )
+		  .addLine( R.string.display_modes_label, 				displayModesText() )
 		  .addNewLine()
 		  .addLine( R.string.play_store_link );
 		
@@ -636,12 +684,12 @@ public class Screen {
 	/**
 	 * Do the best job we can to find out which way the screen is currently rotated.
 	 */
-	private void determineCurrentRotation( Context ctx ) {
+	private void determineCurrentRotation( Context ctx, Display display ) {
 		// First, try the Display#getRotation() call, which was introduced in Froyo.
 		// Reference: http://android-developers.blogspot.com/2010/09/one-screen-turn-deserves-another.html
 		try {
-			Method getRotationMethod = mDisplay.getClass().getMethod("getRotation");
-			int rotation = (Integer) getRotationMethod.invoke(mDisplay);
+			Method getRotationMethod = display.getClass().getMethod("getRotation");
+			int rotation = (Integer) getRotationMethod.invoke(display);
 			switch (rotation) {
 			case Surface.ROTATION_0:
 				currentOrientation = "0";
@@ -663,7 +711,7 @@ public class Screen {
 		}
 		
 		// Fall back on the deprecated Display#getOrientation method from earlier releases of Android.
-		int orientation = mDisplay.getOrientation();
+		int orientation = display.getOrientation();
 		currentOrientation = orientationText( ctx, orientation );
 	}
 	
@@ -26,17 +26,25 @@ package com.jotabout.screeninfo;
  * THE SOFTWARE.
  */
 
+import java.lang.ref.WeakReference;
+
+import android.annotation.TargetApi;
 import android.app.Activity;
+import android.app.AlertDialog;
 import android.app.Dialog;
 import android.content.Intent;
 import android.content.pm.PackageInfo;
 import android.content.pm.PackageManager.NameNotFoundException;
+import android.os.AsyncTask;
+import android.os.Build;
 import android.os.Bundle;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
 import android.widget.Button;
+import android.widget.ScrollView;
 import android.widget.TextView;
+import android.widget.Toast;
 
 /**
  * Main activity class.  Displays information to user.
@@ -48,15 +56,23 @@ public class ScreenInfo extends Activity {
 	//////////////////////////////////////////////////////////////////////////
 	
 	private final static int ABOUT_DIALOG = 1;
-	private final static int MENU_ABOUT = Menu.FIRST;
+	// Package-private for ScreenInfoRecreationTest
+	final static int MENU_ABOUT = Menu.FIRST;
 	private final static int MENU_SHARE = Menu.FIRST + 1;
+	private final static int MENU_DISPLAY_MODES = Menu.FIRST + 2;
+	private final static int MENU_QR = Menu.FIRST + 3;
+	private final static int MENU_TEXT_BENCHMARK = Menu.FIRST + 4;
+	final static int MENU_SCROLL_BENCHMARK = Menu.FIRST + 5;
+	private final static int MENU_RULER = Menu.FIRST + 6;
+	private final static int MENU_THERMAL_SOAK = Menu.FIRST + 7;
 	
 	//////////////////////////////////////////////////////////////////////////
 	// State
 	//////////////////////////////////////////////////////////////////////////
 
-	Dialog mAbout;
 	Screen mScreen;
+	private ScrollBenchmark mScrollBenchmark;
+	private InsetAnalyzer mInsets;
 	
 	//////////////////////////////////////////////////////////////////////////
 	// Activity Lifecycle
@@ -68,6 +84,8 @@ public class ScreenInfo extends Activity {
         setContentView(R.layout.main);
         
         mScreen = new Screen(this);
+        mInsets = new InsetAnalyzer(mScreen);
+        ScreenInfoWidget.refresh(this, mScreen);
     }
     
     @Override
@@ -83,7 +101,33 @@ public class ScreenInfo extends Activity {
         showTouchScreen();
         showPixelFormat();
         showRefreshRate();
+        showReferencePanel();
+
+        mInsets.setMultiWindow( isInMultiWindow() );
+        mInsets.attach( getWindow().getDecorView(), new InsetAnalyzer.Listener() {
+			@Override
+			public void onInsetsChanged(InsetAnalyzer analyzer) {
+				showInsets();
+			}
+		} );
     }
+
+    @Override
+	protected void onPause() {
+		super.onPause();
+		mInsets.detach();
+		if ( mScrollBenchmark != null ) {
+			mScrollBenchmark.stop();
+		}
+	}
+    
+	/**
+	 * Called when entering or leaving split-screen or freeform mode
+	 * (Activity#onMultiWindowModeChanged, as of Android 7.0, API 24).
+	 */
+	public void onMultiWindowModeChanged(boolean isInMultiWindowMode) {
+		mInsets.setMultiWindow( isInMultiWindowMode );
+	}
     
 	//////////////////////////////////////////////////////////////////////////
 	// Info Display
@@ -177,6 +221,86 @@ public class ScreenInfo extends Activity {
 	private void showRefreshRate() {
         TextView refreshRateText = ((TextView) findViewById(R.id.refresh_rate));
 		refreshRateText.setText(Float.toString(mScreen.refreshRate()));
+		TextView displayModesText = ((TextView) findViewById(R.id.display_modes));
+		displayModesText.setText(mScreen.displayModesText());
+	}
+	
+	/**
+	 * Show how the gap between the real and usable screen size breaks down
+	 * into system bars, cutout and the area outside this window, and add it
+	 * to the report.
+	 */
+	private void showInsets() {
+		((TextView) findViewById(R.id.system_bars)).setText( mInsets.systemBarsText( this ) );
+		String cutout = mInsets.cutoutText( this );
+		TextView cutoutText = ((TextView) findViewById(R.id.display_cutout));
+		if ( cutout == null ) {
+			cutoutText.setText( R.string.unsupported );
+		} else {
+			cutoutText.setText( cutout );
+		}
+		((TextView) findViewById(R.id.window_size)).setText( mInsets.windowText( this ) );
+		((TextView) findViewById(R.id.window_changes)).setText( Integer.toString( InsetAnalyzer.windowChanges() ) );
+		BenchmarkReports.put( getString( R.string.insets_title ), mInsets.reportText( this ) );
+	}
+
+	/**
+	 * Activity#isInMultiWindowMode, as of Android 7.0, API 24
+	 */
+	private boolean isInMultiWindow() {
+		if ( Build.VERSION.SDK_INT < 24 ) {
+			return false;
+		}
+		try {
+			return (Boolean) Activity.class.getMethod( "isInMultiWindowMode" ).invoke( this );
+		} catch ( Exception ignore ) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Display the matching panel from the reference database, and whether the
+	 * reported xdpi/ydpi agree with it.  A model name match only counts if the
+	 * resolution matches too.  Otherwise the nearest panel by resolution and
+	 * diagonal is shown for reference, with no dpi verdict, since it is a
+	 * different device.
+	 */
+	private void showReferencePanel() {
+		TextView panelText = ((TextView) findViewById(R.id.reference_panel));
+		TextView checkText = ((TextView) findViewById(R.id.dpi_check));
+
+		DeviceDatabase db = DeviceDatabase.open(this);
+		if ( db == null ) {
+			panelText.setText( R.string.unsupported );
+			checkText.setText( R.string.unsupported );
+			return;
+		}
+
+		int width = mScreen.realWidthPx() == Screen.UNSUPPORTED ? mScreen.widthPx() : mScreen.realWidthPx();
+		int height = mScreen.realHeightPx() == Screen.UNSUPPORTED ? mScreen.heightPx() : mScreen.realHeightPx();
+		int index = db.find( mScreen.deviceModel() );
+		boolean exact = index >= 0 && db.resolutionMatches( index, width, height );
+		if ( !exact ) {
+			int[] nearest = new int[1];
+			if ( db.nearest( width, height, mScreen.diagonalSizeInches(), nearest, new float[1] ) == 0 ) {
+				panelText.setText( R.string.unknown );
+				checkText.setText( R.string.unknown );
+				return;
+			}
+			index = nearest[0];
+		}
+
+		String panel = getString( R.string.reference_panel, db.model(index),
+				db.shortPx(index), db.longPx(index), db.diagonalInches(index), db.panelDpi(index) );
+		panelText.setText( exact ? panel : getString( R.string.reference_panel_nearest, panel ) );
+
+		if ( !exact ) {
+			checkText.setText( R.string.unknown );
+		} else if ( db.dpiMatches( index, mScreen.xdpi(), mScreen.ydpi() ) ) {
+			checkText.setText( R.string.dpi_check_ok );
+		} else {
+			checkText.setText( getString( R.string.dpi_check_suspect, db.panelDpi(index) ) );
+		}
 	}
 	
 	//////////////////////////////////////////////////////////////////////////
@@ -199,26 +323,37 @@ public class ScreenInfo extends Activity {
 
 	@Override
 	protected Dialog onCreateDialog(int id) {
-		mAbout = null;
-
 		switch (id) {
 		case ABOUT_DIALOG:
-			mAbout = new Dialog( this );
-			mAbout.setContentView( R.layout.about_dialog );
-			mAbout.setTitle( R.string.about_title );
-			( (TextView) mAbout.findViewById( R.id.about_version ) )
+			// Managed dialogs are owned (and recreated) by the activity, so
+			// keep no reference of our own beyond the dismiss listener.
+			final Dialog about = new Dialog( this );
+			about.setContentView( R.layout.about_dialog );
+			about.setTitle( R.string.about_title );
+			( (TextView) about.findViewById( R.id.about_version ) )
 					.setText( appVersion() );
-			( (Button) mAbout.findViewById( R.id.about_dismiss ) )
+			( (Button) about.findViewById( R.id.about_dismiss ) )
 					.setOnClickListener(new View.OnClickListener() {
 						@Override
 						public void onClick(View v) {
-							mAbout.dismiss();
+							about.dismiss();
 						}
 					} );
-			break;
+			return about;
 		}
 
-		return mAbout;
+		return null;
+	}
+
+	@Override
+	protected void onPrepareDialog(int id, Dialog dialog) {
+		switch (id) {
+		case ABOUT_DIALOG:
+			// Managed dialogs are created once; refresh the counts on every show.
+			( (TextView) dialog.findViewById( R.id.about_widget_stats ) )
+					.setText( ScreenInfoWidget.statsText( this ) );
+			break;
+		}
 	}
 	
 	//////////////////////////////////////////////////////////////////////////
@@ -229,7 +364,7 @@ public class ScreenInfo extends Activity {
 	 * Share summary report via email or whatever
 	 */
 	private void share() {
-		String summaryString = mScreen.summaryText( this );
+		String summaryString = mScreen.summaryText( this ) + BenchmarkReports.text();
 		final Intent shareIntent = new Intent( android.content.Intent.ACTION_SEND );
 		shareIntent.setType( "text/plain" );
 		shareIntent.putExtra( android.content.Intent.EXTRA_SUBJECT, 
@@ -264,6 +399,20 @@ public class ScreenInfo extends Activity {
 			.setIcon( android.R.drawable.ic_menu_info_details );
 		menu.add( 0, MENU_SHARE, 0, R.string.share_menu )
 			.setIcon( android.R.drawable.ic_menu_share );
+		menu.add( 0, MENU_QR, 0, R.string.qr_menu )
+			.setIcon( android.R.drawable.ic_menu_gallery );
+		menu.add( 0, MENU_RULER, 0, R.string.ruler_menu )
+			.setIcon( android.R.drawable.ic_menu_crop );
+		menu.add( 0, MENU_TEXT_BENCHMARK, 0, R.string.text_benchmark_menu )
+			.setIcon( android.R.drawable.ic_menu_edit );
+		if ( Build.VERSION.SDK_INT >= 16 ) {
+			menu.add( 0, MENU_DISPLAY_MODES, 0, R.string.display_modes_menu )
+				.setIcon( android.R.drawable.ic_menu_view );
+			menu.add( 0, MENU_SCROLL_BENCHMARK, 0, R.string.scroll_benchmark_menu )
+				.setIcon( android.R.drawable.ic_menu_sort_by_size );
+			menu.add( 0, MENU_THERMAL_SOAK, 0, R.string.thermal_soak_menu )
+				.setIcon( android.R.drawable.ic_menu_recent_history );
+		}
 		return true;
 	}
 
@@ -276,8 +425,94 @@ public class ScreenInfo extends Activity {
 		case MENU_SHARE:
 			share();
 			return true;
+		case MENU_QR:
+			startActivity( new Intent( this, QrCodeActivity.class ) );
+			return true;
+		case MENU_DISPLAY_MODES:
+			startActivity( new Intent( this, DisplayModeBenchmark.class ) );
+			return true;
+		case MENU_RULER:
+			startActivity( new Intent( this, RulerActivity.class ) );
+			return true;
+		case MENU_TEXT_BENCHMARK:
+			Toast.makeText( this, R.string.text_benchmark_running, Toast.LENGTH_SHORT ).show();
+			new TextBenchmarkTask( this ).execute( mScreen );
+			return true;
+		case MENU_THERMAL_SOAK:
+			startActivity( new Intent( this, ThermalSoakActivity.class ) );
+			return true;
+		case MENU_SCROLL_BENCHMARK:
+			startScrollBenchmark();
+			return true;
 		}
 		
 		return false;
 	}
+	
+	//////////////////////////////////////////////////////////////////////////
+	// Scroll Benchmark
+	//////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Fling and scroll the metrics screen, then add the frame timing to the
+	 * report and show it.
+	 */
+	@TargetApi(16)
+	private void startScrollBenchmark() {
+		if ( mScrollBenchmark == null ) {
+			mScrollBenchmark = new ScrollBenchmark( (ScrollView) findViewById( R.id.main_scroll ),
+					mScreen.refreshRate(), new ScrollBenchmark.Listener() {
+						@Override
+						public void onScrollBenchmarkComplete( String report ) {
+							String title = getString( R.string.scroll_benchmark_title );
+							BenchmarkReports.put( title, report );
+							new AlertDialog.Builder( ScreenInfo.this )
+								.setTitle( title )
+								.setMessage( report )
+								.setPositiveButton( android.R.string.ok, null )
+								.show();
+						}
+					} );
+		}
+		mScrollBenchmark.start();
+	}
+	
+	//////////////////////////////////////////////////////////////////////////
+	// Text Benchmark
+	//////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Runs the text benchmark off the UI thread, adds it to the report and
+	 * shows the figures.  Holds the activity weakly so a rotation or exit
+	 * mid-run doesn't leak it; the report section is recorded regardless.
+	 */
+	private static class TextBenchmarkTask extends AsyncTask<Screen, Void, String> {
+		private final WeakReference<ScreenInfo> mActivity;
+		private final String mTitle;
+
+		TextBenchmarkTask( ScreenInfo activity ) {
+			mActivity = new WeakReference<ScreenInfo>( activity );
+			mTitle = activity.getString( R.string.text_benchmark_title );
+		}
+
+		@Override
+		protected String doInBackground( Screen... screens ) {
+			String text = new TextBenchmark( screens[0] ).run().toString();
+			BenchmarkReports.put( mTitle, text );
+			return text;
+		}
+
+		@Override
+		protected void onPostExecute( String text ) {
+			ScreenInfo activity = mActivity.get();
+			if ( activity == null || activity.isFinishing() ) {
+				return;
+			}
+			new AlertDialog.Builder( activity )
+				.setTitle( mTitle )
+				.setMessage( text )
+				.setPositiveButton( android.R.string.ok, null )
+				.show();
+		}
+	}
 }
\ No newline at end of file
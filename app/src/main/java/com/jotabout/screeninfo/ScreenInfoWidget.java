@@ -0,0 +1,283 @@
+package com.jotabout.screeninfo;
+
+/**
+ * ScreenInfo
+ *
+ * Display the screen configuration parameters for an Android device.
+ *
+ * Copyright (c) 2011 Michael J. Portuesi (http://www.jotabout.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+import android.annotation.TargetApi;
+import android.app.PendingIntent;
+import android.appwidget.AppWidgetManager;
+import android.appwidget.AppWidgetProvider;
+import android.content.BroadcastReceiver;
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.SharedPreferences;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.SystemClock;
+import android.widget.RemoteViews;
+
+/**
+ * Home screen widget showing the key display parameters at a glance.
+ *
+ * The widget never polls (updatePeriodMillis is 0).  It is refreshed only
+ * when something tells us the display configuration may have changed:
+ * the host adding or restoring the widget, the host resizing or rotating
+ * it (onAppWidgetOptionsChanged), a configuration change (rotation,
+ * density, display size) while any widget is placed, or the main activity
+ * building a fresh Screen.  ACTION_CONFIGURATION_CHANGED can't be declared
+ * in the manifest, so a receiver is registered on the application context
+ * whenever the provider or activity runs with widgets placed.  A refresh
+ * whose values match the last ones pushed (kept in preferences, so they
+ * outlive the process) is skipped.
+ *
+ * Every widget wakeup (provider callback or configuration change) is
+ * tallied per day in shared preferences (wakeups, skips, and thread CPU
+ * time spent, including building the Screen) so the widget's cost can be
+ * measured.  Refreshes driven by the activity are not wakeups of the
+ * widget and are not counted.  Preferences are written asynchronously
+ * where the platform allows (API 9+).
+ */
+public class ScreenInfoWidget extends AppWidgetProvider {
+
+	//////////////////////////////////////////////////////////////////////////
+	// Constants
+	//////////////////////////////////////////////////////////////////////////
+
+	private final static String PREFS_NAME = "widget_stats";
+	private final static String PREF_DAY = "day";
+	private final static String PREF_WAKEUPS = "wakeups";
+	private final static String PREF_SKIPPED = "skipped";
+	private final static String PREF_CPU_MS = "cpu_ms";
+	private final static String PREF_LAST_KEY = "last_key";
+
+	private final static long MILLIS_PER_DAY = 24L * 60L * 60L * 1000L;
+
+	//////////////////////////////////////////////////////////////////////////
+	// State
+	//////////////////////////////////////////////////////////////////////////
+
+	// Registered on the application context while widgets are placed
+	private static BroadcastReceiver sConfigReceiver;
+
+	//////////////////////////////////////////////////////////////////////////
+	// AppWidgetProvider
+	//////////////////////////////////////////////////////////////////////////
+
+	@Override
+	public void onUpdate(Context context, AppWidgetManager appWidgetManager, int[] appWidgetIds) {
+		// New or restored instances must always receive views, even when
+		// the values are unchanged.
+		registerConfigReceiver( context );
+		update( context, appWidgetManager, appWidgetIds, true );
+	}
+
+	@Override
+	public void onEnabled(Context context) {
+		registerConfigReceiver( context );
+	}
+
+	@Override
+	public void onAppWidgetOptionsChanged(Context context, AppWidgetManager appWidgetManager,
+			int appWidgetId, Bundle newOptions) {
+		// Sent by the host on resize, and by most launchers on rotation.
+		registerConfigReceiver( context );
+		update( context, appWidgetManager, new int[] { appWidgetId }, false );
+	}
+
+	@Override
+	public void onDisabled(Context context) {
+		synchronized ( ScreenInfoWidget.class ) {
+			if ( sConfigReceiver != null ) {
+				context.getApplicationContext().unregisterReceiver( sConfigReceiver );
+				sConfigReceiver = null;
+			}
+		}
+		apply( context.getSharedPreferences( PREFS_NAME, Context.MODE_PRIVATE ).edit()
+				.remove( PREF_LAST_KEY ) );
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Public
+	//////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Refresh all widget instances from a freshly built Screen.  Does nothing
+	 * (beyond a cheap comparison) when no widget is placed or nothing changed.
+	 */
+	public static void refresh( Context ctx, Screen screen ) {
+		AppWidgetManager manager = AppWidgetManager.getInstance( ctx );
+		int[] ids = manager.getAppWidgetIds( new ComponentName( ctx, ScreenInfoWidget.class ) );
+		if ( ids == null || ids.length == 0 ) {
+			return;
+		}
+		registerConfigReceiver( ctx );
+		push( ctx, manager, ids, screen, false );
+	}
+
+	/**
+	 * Widget cost for the current day, as displayable text.
+	 */
+	public static String statsText( Context ctx ) {
+		SharedPreferences prefs = ctx.getSharedPreferences( PREFS_NAME, Context.MODE_PRIVATE );
+		if ( prefs.getLong( PREF_DAY, -1 ) != today() ) {
+			return ctx.getString( R.string.widget_stats, 0, 0, 0L );
+		}
+		return ctx.getString( R.string.widget_stats,
+				prefs.getInt( PREF_WAKEUPS, 0 ),
+				prefs.getInt( PREF_SKIPPED, 0 ),
+				prefs.getLong( PREF_CPU_MS, 0 ) );
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Private
+	//////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Listen for configuration changes for as long as the process lives,
+	 * once per process.
+	 */
+	private static void registerConfigReceiver( Context ctx ) {
+		synchronized ( ScreenInfoWidget.class ) {
+			if ( sConfigReceiver != null ) {
+				return;
+			}
+			sConfigReceiver = new BroadcastReceiver() {
+				@Override
+				public void onReceive( Context context, Intent intent ) {
+					AppWidgetManager manager = AppWidgetManager.getInstance( context );
+					int[] ids = manager.getAppWidgetIds( new ComponentName( context, ScreenInfoWidget.class ) );
+					if ( ids != null && ids.length > 0 ) {
+						update( context, manager, ids, false );
+					}
+				}
+			};
+			ctx.getApplicationContext().registerReceiver( sConfigReceiver,
+					new IntentFilter( Intent.ACTION_CONFIGURATION_CHANGED ) );
+		}
+	}
+
+	/**
+	 * Widget wakeup path: build a Screen, push it, and record the
+	 * wakeup with its full CPU cost.
+	 */
+	private static void update( Context ctx, AppWidgetManager manager, int[] ids, boolean force ) {
+		long cpuStart = SystemClock.currentThreadTimeMillis();
+		boolean pushed = push( ctx, manager, ids, new Screen( ctx ), force );
+		recordStats( ctx, !pushed, SystemClock.currentThreadTimeMillis() - cpuStart );
+	}
+
+	/**
+	 * Push the screen's values to the widget instances, unless unchanged
+	 * and not forced.  Returns whether the views were sent.
+	 */
+	private static boolean push( Context ctx, AppWidgetManager manager, int[] ids,
+			Screen screen, boolean force ) {
+		SharedPreferences prefs = ctx.getSharedPreferences( PREFS_NAME, Context.MODE_PRIVATE );
+		String key = widgetKey( screen );
+		boolean changed = !key.equals( prefs.getString( PREF_LAST_KEY, null ) );
+		if ( !changed && !force ) {
+			return false;
+		}
+
+		// RemoteViews accumulate actions, so each push gets a fresh instance.
+		manager.updateAppWidget( ids, buildViews( ctx, screen ) );
+		if ( changed ) {
+			apply( prefs.edit().putString( PREF_LAST_KEY, key ) );
+		}
+		return true;
+	}
+
+	/**
+	 * Compact signature of the values shown by the widget.
+	 */
+	private static String widgetKey( Screen screen ) {
+		StringBuilder sb = new StringBuilder();
+		sb.append( displayWidth( screen ) ).append( 'x' ).append( displayHeight( screen ) )
+		  .append( '/' ).append( screen.densityDpi() )
+		  .append( '/' ).append( screen.sizeClassification() )
+		  .append( '/' ).append( screen.refreshRate() );
+		return sb.toString();
+	}
+
+	private static RemoteViews buildViews( Context ctx, Screen screen ) {
+		RemoteViews views = new RemoteViews( ctx.getPackageName(), R.layout.widget );
+
+		views.setTextViewText( R.id.widget_resolution,
+				displayWidth( screen ) + " x " + displayHeight( screen ) );
+		views.setTextViewText( R.id.widget_density,
+				screen.densityDpiText( ctx ) + " (" + screen.densityDpi() + ")" );
+		views.setTextViewText( R.id.widget_screen_class, screen.sizeClassificationText( ctx ) );
+		views.setTextViewText( R.id.widget_refresh_rate, Float.toString( screen.refreshRate() ) );
+
+		Intent launch = new Intent( ctx, ScreenInfo.class );
+		views.setOnClickPendingIntent( R.id.widget_root,
+				PendingIntent.getActivity( ctx, 0, launch, 0 ) );
+
+		return views;
+	}
+
+	private static int displayWidth( Screen screen ) {
+		return screen.realWidthPx() == Screen.UNSUPPORTED ? screen.widthPx() : screen.realWidthPx();
+	}
+
+	private static int displayHeight( Screen screen ) {
+		return screen.realHeightPx() == Screen.UNSUPPORTED ? screen.heightPx() : screen.realHeightPx();
+	}
+
+	private static synchronized void recordStats( Context ctx, boolean skipped, long cpuMillis ) {
+		SharedPreferences prefs = ctx.getSharedPreferences( PREFS_NAME, Context.MODE_PRIVATE );
+		long day = today();
+		boolean sameDay = prefs.getLong( PREF_DAY, -1 ) == day;
+
+		int wakeups = sameDay ? prefs.getInt( PREF_WAKEUPS, 0 ) : 0;
+		int skips = sameDay ? prefs.getInt( PREF_SKIPPED, 0 ) : 0;
+		long cpu = sameDay ? prefs.getLong( PREF_CPU_MS, 0 ) : 0;
+
+		apply( prefs.edit()
+			.putLong( PREF_DAY, day )
+			.putInt( PREF_WAKEUPS, wakeups + 1 )
+			.putInt( PREF_SKIPPED, skipped ? skips + 1 : skips )
+			.putLong( PREF_CPU_MS, cpu + cpuMillis ) );
+	}
+
+	/**
+	 * Write preferences without blocking on disk where supported.
+	 */
+	@TargetApi(9)
+	private static void apply( SharedPreferences.Editor editor ) {
+		if ( Build.VERSION.SDK_INT >= 9 ) {
+			editor.apply();
+		} else {
+			editor.commit();
+		}
+	}
+
+	private static long today() {
+		return System.currentTimeMillis() / MILLIS_PER_DAY;
+	}
+}
@@ -0,0 +1,206 @@
+package com.jotabout.screeninfo;
+
+/**
+ * ScreenInfo
+ *
+ * Display the screen configuration parameters for an Android device.
+ *
+ * Copyright (c) 2011 Michael J. Portuesi (http://www.jotabout.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Iterator;
+
+/**
+ * Base class for machine-readable Screen exporters.
+ *
+ * Records are streamed straight to the output as they are written; nothing
+ * is buffered beyond the underlying Writer.  Field keys are fixed,
+ * locale-independent identifiers (see FIELDS), and values are written
+ * with Integer/Float/Double.toString, which do not depend on the locale
+ * either.  Fields that are UNSUPPORTED on the device are handed to the
+ * format as null values.
+ *
+ * A single snapshot is exported with begin(), write(), end().  History
+ * batches simply call write() once per snapshot in between.
+ */
+public abstract class ScreenReportWriter {
+
+	//////////////////////////////////////////////////////////////////////////
+	// Constants
+	//////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Field keys, in the order in which they are written.
+	 */
+	public static final String[] FIELDS = {
+		"device_model",
+		"android_version",
+		"size_class",
+		"density_dpi",
+		"real_width_px",
+		"real_height_px",
+		"width_px",
+		"height_px",
+		"width_dp",
+		"height_dp",
+		"smallest_dp",
+		"screen_layout",
+		"default_orientation",
+		"current_orientation",
+		"touchscreen",
+		"xdpi",
+		"ydpi",
+		"density",
+		"scaled_density",
+		"physical_width_in",
+		"physical_height_in",
+		"diagonal_in",
+		"diagonal_mm",
+		"pixel_format",
+		"refresh_rate",
+		"display_modes",
+	};
+
+	//////////////////////////////////////////////////////////////////////////
+	// State
+	//////////////////////////////////////////////////////////////////////////
+
+	protected final Writer mOut;
+	private int mField;
+
+	protected ScreenReportWriter( Writer out ) {
+		mOut = out;
+	}
+
+	protected ScreenReportWriter( OutputStream out ) throws IOException {
+		this( new BufferedWriter( new OutputStreamWriter( out, "UTF-8" ) ) );
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Public
+	//////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Start the export (header, opening bracket, etc).
+	 */
+	public abstract void begin() throws IOException;
+
+	/**
+	 * Finish the export and flush the output.  The output is not closed.
+	 */
+	public abstract void end() throws IOException;
+
+	/**
+	 * Write one snapshot as a record.
+	 */
+	public void write( Screen screen ) throws IOException {
+		mField = 0;
+		beginRecord();
+		field( screen.deviceModel() );
+		field( screen.androidVersion() );
+		field( screen.sizeClassification() );
+		field( screen.densityDpi() );
+		field( screen.realWidthPx() );
+		field( screen.realHeightPx() );
+		field( screen.widthPx() );
+		field( screen.heightPx() );
+		field( screen.widthDp() );
+		field( screen.heightDp() );
+		field( screen.smallestDp() );
+		field( screen.screenLayout() );
+		field( screen.defaultOrientation() );
+		field( screen.currentOrientationText() );
+		field( screen.touchScreen() );
+		field( screen.xdpi() );
+		field( screen.ydpi() );
+		field( screen.density() );
+		field( screen.scaledDensity() );
+		field( screen.physicalWidth() );
+		field( screen.physicalHeight() );
+		field( screen.diagonalSizeInches() );
+		field( screen.diagonalSizeMillimeters() );
+		field( screen.pixelFormat() );
+		field( screen.refreshRate() );
+		field( screen.displayModesText() );
+		endRecord();
+	}
+
+	/**
+	 * Write a batch of snapshots.  The iterator is consumed one snapshot at
+	 * a time, so memory use is bounded by what the iterator itself retains.
+	 */
+	public void writeAll( Iterator<Screen> screens ) throws IOException {
+		while ( screens.hasNext() ) {
+			write( screens.next() );
+		}
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Format hooks
+	//////////////////////////////////////////////////////////////////////////
+
+	protected abstract void beginRecord() throws IOException;
+
+	protected abstract void endRecord() throws IOException;
+
+	/**
+	 * Write a string value.  A null value means the field is unsupported.
+	 */
+	protected abstract void stringValue( int index, String key, String value ) throws IOException;
+
+	/**
+	 * Write an already-formatted numeric value.  A null value means the
+	 * field is unsupported (or not a finite number).
+	 */
+	protected abstract void numberValue( int index, String key, String value ) throws IOException;
+
+	//////////////////////////////////////////////////////////////////////////
+	// Private
+	//////////////////////////////////////////////////////////////////////////
+
+	private void field( String value ) throws IOException {
+		int index = mField++;
+		stringValue( index, FIELDS[index], value );
+	}
+
+	private void field( int value ) throws IOException {
+		int index = mField++;
+		numberValue( index, FIELDS[index],
+				value == Screen.UNSUPPORTED ? null : Integer.toString( value ) );
+	}
+
+	private void field( float value ) throws IOException {
+		int index = mField++;
+		numberValue( index, FIELDS[index],
+				( Float.isNaN( value ) || Float.isInfinite( value ) ) ? null : Float.toString( value ) );
+	}
+
+	private void field( double value ) throws IOException {
+		int index = mField++;
+		numberValue( index, FIELDS[index],
+				( Double.isNaN( value ) || Double.isInfinite( value ) ) ? null : Double.toString( value ) );
+	}
+}
@@ -0,0 +1,237 @@
+package com.jotabout.screeninfo;
+
+/**
+ * ScreenInfo
+ *
+ * Display the screen configuration parameters for an Android device.
+ *
+ * Copyright (c) 2011 Michael J. Portuesi (http://www.jotabout.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+import java.util.Arrays;
+import java.util.Locale;
+
+import android.annotation.TargetApi;
+import android.view.Choreographer;
+import android.view.ViewConfiguration;
+import android.widget.ScrollView;
+
+/**
+ * Drives a ScrollView through a fixed script of flings and smooth scrolls
+ * and records the interval between consecutive frames for the whole run.
+ *
+ * Intervals are compared against the frame budget at the display's
+ * refresh rate: an interval more than half a period over budget is counted
+ * as a janky frame, and every whole period beyond the first as a dropped
+ * frame.  Intervals are kept in a preallocated array so that recording
+ * does not allocate while the view is scrolling.
+ *
+ * Requires Choreographer (API 16).
+ */
+@TargetApi(16)
+public class ScrollBenchmark implements Choreographer.FrameCallback {
+
+	/**
+	 * Notified on the UI thread with the report text when a run completes.
+	 */
+	public interface Listener {
+		void onScrollBenchmarkComplete( String report );
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Constants
+	//////////////////////////////////////////////////////////////////////////
+
+	private final static int MAX_FRAMES = 4096;
+	private final static int SETTLE_FRAMES = 5;
+	private final static long STEP_TIMEOUT_NANOS = 3000000000L;
+
+	private final static int STEP_FLING_DOWN = 0;
+	private final static int STEP_FLING_UP = 1;
+	private final static int STEP_SCROLL_DOWN = 2;
+	private final static int STEP_SCROLL_UP = 3;
+	private final static int[] SCRIPT = {
+		STEP_FLING_DOWN, STEP_FLING_UP,
+		STEP_FLING_DOWN, STEP_FLING_UP,
+		STEP_SCROLL_DOWN, STEP_SCROLL_UP,
+	};
+
+	//////////////////////////////////////////////////////////////////////////
+	// State
+	//////////////////////////////////////////////////////////////////////////
+
+	private final ScrollView mScroll;
+	private final float mRefreshRate;
+	private final int mFlingVelocity;
+	private final Listener mListener;
+
+	private final long[] mIntervals = new long[MAX_FRAMES];
+	private int mFrameCount;
+	private long mLastFrameNanos;
+
+	private boolean mRunning;
+	private int mStep;
+	private long mStepStartNanos;
+	private int mLastScrollY;
+	private int mStillFrames;
+
+	public ScrollBenchmark( ScrollView scroll, float refreshRate, Listener listener ) {
+		mScroll = scroll;
+		mRefreshRate = refreshRate > 0 ? refreshRate : 60.0f;
+		mListener = listener;
+		mFlingVelocity = ViewConfiguration.get( scroll.getContext() ).getScaledMaximumFlingVelocity() / 2;
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Public
+	//////////////////////////////////////////////////////////////////////////
+
+	public boolean isRunning() {
+		return mRunning;
+	}
+
+	/**
+	 * Scroll to the top and start the script.
+	 */
+	public void start() {
+		if ( mRunning ) {
+			return;
+		}
+		mRunning = true;
+		mFrameCount = 0;
+		mLastFrameNanos = 0;
+		mScroll.scrollTo( 0, 0 );
+		beginStep( 0, System.nanoTime() );
+		Choreographer.getInstance().postFrameCallback( this );
+	}
+
+	/**
+	 * Abandon a run in progress, without reporting.
+	 */
+	public void stop() {
+		if ( mRunning ) {
+			mRunning = false;
+			Choreographer.getInstance().removeFrameCallback( this );
+			mScroll.smoothScrollTo( 0, 0 );
+		}
+	}
+
+	@Override
+	public void doFrame( long frameTimeNanos ) {
+		if ( !mRunning ) {
+			return;
+		}
+
+		if ( mLastFrameNanos > 0 && mFrameCount < MAX_FRAMES ) {
+			mIntervals[mFrameCount++] = frameTimeNanos - mLastFrameNanos;
+		}
+		mLastFrameNanos = frameTimeNanos;
+
+		int scrollY = mScroll.getScrollY();
+		mStillFrames = scrollY == mLastScrollY ? mStillFrames + 1 : 0;
+		mLastScrollY = scrollY;
+
+		boolean settled = mStillFrames >= SETTLE_FRAMES
+				|| frameTimeNanos - mStepStartNanos > STEP_TIMEOUT_NANOS;
+		if ( settled ) {
+			if ( mStep + 1 < SCRIPT.length && mFrameCount < MAX_FRAMES ) {
+				beginStep( mStep + 1, frameTimeNanos );
+			} else {
+				mRunning = false;
+				mListener.onScrollBenchmarkComplete( report() );
+				return;
+			}
+		}
+
+		Choreographer.getInstance().postFrameCallback( this );
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Private
+	//////////////////////////////////////////////////////////////////////////
+
+	private void beginStep( int step, long nowNanos ) {
+		mStep = step;
+		mStepStartNanos = nowNanos;
+		mStillFrames = 0;
+		mLastScrollY = mScroll.getScrollY();
+
+		switch ( SCRIPT[step] ) {
+		case STEP_FLING_DOWN:
+			mScroll.fling( mFlingVelocity );
+			break;
+		case STEP_FLING_UP:
+			mScroll.fling( -mFlingVelocity );
+			break;
+		case STEP_SCROLL_DOWN:
+			mScroll.smoothScrollTo( 0, maxScrollY() );
+			break;
+		case STEP_SCROLL_UP:
+			mScroll.smoothScrollTo( 0, 0 );
+			break;
+		}
+	}
+
+	private int maxScrollY() {
+		if ( mScroll.getChildCount() == 0 ) {
+			return 0;
+		}
+		return Math.max( 0, mScroll.getChildAt( 0 ).getHeight() - mScroll.getHeight() );
+	}
+
+	private String report() {
+		long budget = (long) ( 1e9 / mRefreshRate );
+		long[] sorted = Arrays.copyOf( mIntervals, mFrameCount );
+		Arrays.sort( sorted );
+
+		int janky = 0;
+		long dropped = 0;
+		for ( int i = 0; i < mFrameCount; i++ ) {
+			long interval = mIntervals[i];
+			if ( interval > budget + budget / 2 ) {
+				janky++;
+			}
+			dropped += Math.max( 0, ( interval + budget / 2 ) / budget - 1 );
+		}
+
+		StringBuilder sb = new StringBuilder();
+		sb.append( String.format( Locale.US, "Scroll range: %d px\n", maxScrollY() ) );
+		sb.append( String.format( Locale.US, "Frames: %d, budget %.2f ms at %.1f fps\n",
+				mFrameCount, budget / 1e6, mRefreshRate ) );
+		sb.append( String.format( Locale.US, "Janky frames: %d (%.1f%%), dropped frames: %d\n",
+				janky, mFrameCount == 0 ? 0.0 : 100.0 * janky / mFrameCount, dropped ) );
+		sb.append( String.format( Locale.US, "Frame interval p50/p90/p99/max: %.2f / %.2f / %.2f / %.2f ms\n",
+				percentile( sorted, 50 ) / 1e6, percentile( sorted, 90 ) / 1e6,
+				percentile( sorted, 99 ) / 1e6, percentile( sorted, 100 ) / 1e6 ) );
+		return sb.toString();
+	}
+
+	/**
+	 * Nearest-rank percentile of a sorted array.
+	 */
+	private static long percentile( long[] sorted, int p ) {
+		if ( sorted.length == 0 ) {
+			return 0;
+		}
+		int rank = (int) Math.ceil( p / 100.0 * sorted.length );
+		return sorted[Math.max( 0, Math.min( sorted.length, rank ) - 1 )];
+	}
+}
@@ -0,0 +1,221 @@
+package com.jotabout.screeninfo;
+
+/**
+ * ScreenInfo
+ *
+ * Display the screen configuration parameters for an Android device.
+ *
+ * Copyright (c) 2011 Michael J. Portuesi (http://www.jotabout.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+import android.os.Build;
+
+/**
+ * Compact binary encoding of a Screen snapshot, for hand-off via QR code.
+ *
+ * Layout (big-endian), version 1:
+ *
+ *   byte   format version (1)
+ *   byte   API level
+ *   short  real width, real height, width, height (px)
+ *   short  width, height, smallest width (dp)
+ *   short  density dpi, pixel format
+ *   float  xdpi, ydpi, density, scaled density, refresh rate
+ *   byte   size class, long/wide, touchscreen, natural orientation
+ *   byte   model length, then model (ASCII)
+ *   byte   Android version length, then Android version (ASCII)
+ *
+ * UNSUPPORTED values are stored as-is (they fit in a short).  Characters
+ * outside ASCII are replaced with '?'.  decode() reads the layout back,
+ * as a scanning bench would.
+ */
+public class SnapshotCodec {
+
+	public static final int FORMAT_VERSION = 1;
+	public static final int MAX_STRING = 64;
+	public static final int MAX_LENGTH = 2 + 9 * 2 + 5 * 4 + 4 + 2 * ( 1 + MAX_STRING );
+
+	/**
+	 * Snapshot fields as read back by decode().
+	 */
+	public static class Snapshot {
+		public int apiLevel;
+		public int realWidthPx;
+		public int realHeightPx;
+		public int widthPx;
+		public int heightPx;
+		public int widthDp;
+		public int heightDp;
+		public int smallestDp;
+		public int densityDpi;
+		public int pixelFormat;
+		public float xdpi;
+		public float ydpi;
+		public float density;
+		public float scaledDensity;
+		public float refreshRate;
+		public int sizeClassification;
+		public int screenLayout;
+		public int touchScreen;
+		public int defaultOrientation;
+		public String deviceModel;
+		public String androidVersion;
+	}
+
+	/**
+	 * Encode a snapshot into the buffer, which must hold MAX_LENGTH bytes.
+	 * Returns the number of bytes written.
+	 */
+	public static int encode( Screen screen, byte[] out ) {
+		int pos = 0;
+		out[pos++] = FORMAT_VERSION;
+		out[pos++] = (byte) Build.VERSION.SDK_INT;
+
+		pos = putShort( out, pos, screen.realWidthPx() );
+		pos = putShort( out, pos, screen.realHeightPx() );
+		pos = putShort( out, pos, screen.widthPx() );
+		pos = putShort( out, pos, screen.heightPx() );
+		pos = putShort( out, pos, screen.widthDp() );
+		pos = putShort( out, pos, screen.heightDp() );
+		pos = putShort( out, pos, screen.smallestDp() );
+		pos = putShort( out, pos, screen.densityDpi() );
+		pos = putShort( out, pos, screen.pixelFormat() );
+
+		pos = putFloat( out, pos, screen.xdpi() );
+		pos = putFloat( out, pos, screen.ydpi() );
+		pos = putFloat( out, pos, (float) screen.density() );
+		pos = putFloat( out, pos, screen.scaledDensity() );
+		pos = putFloat( out, pos, screen.refreshRate() );
+
+		out[pos++] = (byte) screen.sizeClassification();
+		out[pos++] = (byte) screen.screenLayout();
+		out[pos++] = (byte) screen.touchScreen();
+		out[pos++] = (byte) screen.defaultOrientation();
+
+		pos = putString( out, pos, screen.deviceModel() );
+		pos = putString( out, pos, screen.androidVersion() );
+		return pos;
+	}
+
+	/**
+	 * Decode the first length bytes of a buffer written by encode().
+	 *
+	 * @throws IllegalArgumentException if the version is unknown or the
+	 *         data is truncated
+	 */
+	public static Snapshot decode( byte[] in, int length ) {
+		if ( length < 1 || in[0] != FORMAT_VERSION ) {
+			throw new IllegalArgumentException( "Unknown snapshot format" );
+		}
+		Reader r = new Reader( in, length );
+		r.pos = 1;
+
+		Snapshot s = new Snapshot();
+		s.apiLevel = r.getByte();
+
+		s.realWidthPx = r.getShort();
+		s.realHeightPx = r.getShort();
+		s.widthPx = r.getShort();
+		s.heightPx = r.getShort();
+		s.widthDp = r.getShort();
+		s.heightDp = r.getShort();
+		s.smallestDp = r.getShort();
+		s.densityDpi = r.getShort();
+		s.pixelFormat = r.getShort();
+
+		s.xdpi = r.getFloat();
+		s.ydpi = r.getFloat();
+		s.density = r.getFloat();
+		s.scaledDensity = r.getFloat();
+		s.refreshRate = r.getFloat();
+
+		s.sizeClassification = r.getByte();
+		s.screenLayout = r.getByte();
+		s.touchScreen = r.getByte();
+		s.defaultOrientation = r.getByte();
+
+		s.deviceModel = r.getString();
+		s.androidVersion = r.getString();
+		return s;
+	}
+
+	/**
+	 * Bounds-checked cursor over an encoded snapshot.
+	 */
+	private static class Reader {
+		private final byte[] mIn;
+		private final int mLength;
+		int pos;
+
+		Reader( byte[] in, int length ) {
+			mIn = in;
+			mLength = length;
+		}
+
+		int getByte() {
+			if ( pos >= mLength ) {
+				throw new IllegalArgumentException( "Truncated snapshot" );
+			}
+			return mIn[pos++] & 0xFF;
+		}
+
+		/** Signed, so that UNSUPPORTED values read back as written. */
+		int getShort() {
+			return (short) ( getByte() << 8 | getByte() );
+		}
+
+		float getFloat() {
+			int high = getShort() & 0xFFFF;
+			return Float.intBitsToFloat( high << 16 | ( getShort() & 0xFFFF ) );
+		}
+
+		String getString() {
+			int length = getByte();
+			StringBuilder sb = new StringBuilder( length );
+			for ( int i = 0; i < length; i++ ) {
+				sb.append( (char) getByte() );
+			}
+			return sb.toString();
+		}
+	}
+
+	private static int putShort( byte[] out, int pos, int value ) {
+		out[pos++] = (byte) ( value >> 8 );
+		out[pos++] = (byte) value;
+		return pos;
+	}
+
+	private static int putFloat( byte[] out, int pos, float value ) {
+		int bits = Float.floatToIntBits( value );
+		pos = putShort( out, pos, bits >>> 16 );
+		return putShort( out, pos, bits );
+	}
+
+	private static int putString( byte[] out, int pos, String value ) {
+		int length = value == null ? 0 : Math.min( value.length(), MAX_STRING );
+		out[pos++] = (byte) length;
+		for ( int i = 0; i < length; i++ ) {
+			char c = value.charAt( i );
+			out[pos++] = (byte) ( c < 0x80 ? c : '?' );
+		}
+		return pos;
+	}
+}
@@ -0,0 +1,306 @@
+package com.jotabout.screeninfo;
+
+/**
+ * ScreenInfo
+ *
+ * Display the screen configuration parameters for an Android device.
+ *
+ * Copyright (c) 2011 Michael J. Portuesi (http://www.jotabout.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+import java.text.DateFormatSymbols;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.os.SystemClock;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+
+/**
+ * Measures text throughput at the device's font scale: text measurement
+ * (characters/second), line breaking into StaticLayouts (layouts/second),
+ * and drawing laid-out text (characters/second).  Rates count UTF-16
+ * characters, not glyphs.
+ *
+ * Text is sized as the UI's 14sp labels would be, using the snapshot's
+ * scaledDensity, and is drawn into an off-screen software bitmap as wide
+ * as the usable screen.  Call run() off the UI thread.
+ *
+ * The platform caches shaped text per word, so the benchmark runs over a
+ * pool of real words: the sample labels below plus the names and date
+ * symbols (months, weekdays, eras) of every available locale, in their
+ * own languages.  The words are shuffled (with a fixed seed) into lines as
+ * long as the samples, more words in all than the word cache holds, and
+ * every phase cycles through the pool in order, so a word has been evicted
+ * by the time it comes round again as long as the device offers enough
+ * distinct words (reported with the results).  The pool is built, and for
+ * drawing laid out, before any timing starts.
+ */
+public class TextBenchmark {
+
+	//////////////////////////////////////////////////////////////////////////
+	// Constants
+	//////////////////////////////////////////////////////////////////////////
+
+	private final static float TEXT_SIZE_SP = 14.0f;
+	private final static long PHASE_MILLIS = 750;
+	private final static int CANVAS_HEIGHT = 512;
+	private final static long SEED = 0x7E47L;
+
+	// Words in the pool; more than the platform's word layout cache
+	// (5,000 entries) holds
+	private final static int POOL_WORDS = 8000;
+
+	private final static String[] SAMPLES = {
+		"Refresh Rate (fps):",
+		"The quick brown fox jumps over the lazy dog 0123456789.",
+		"Displays the screen configuration parameters for an Android device, "
+			+ "including size and density classification, usable and total pixel "
+			+ "dimensions, dp sizes, physical dpi, and the calculated diagonal.",
+		// Latin with accents, Cyrillic, CJK, Hangul and Arabic
+		"Gr\u00f6\u00dfe \u00b7 \u00c9cran \u00b7 Pantalla \u00b7 \u042d\u043a\u0440\u0430\u043d \u00b7 \u753b\u9762 \u00b7 \ud654\uba74 \u00b7 \u0634\u0627\u0634\u0629",
+	};
+
+	//////////////////////////////////////////////////////////////////////////
+	// Result
+	//////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Throughput figures from one run.
+	 */
+	public static class Result {
+		public float scaledDensity;
+		public float textSizePx;
+		public int poolLines;
+		public int poolWords;
+		public int distinctWords;
+		public long measureCharsPerSecond;
+		public long layoutsPerSecond;
+		public long layoutCharsPerSecond;
+		public long drawCharsPerSecond;
+
+		@Override
+		public String toString() {
+			return String.format( Locale.US,
+					"Text size: %.1f px (scaled density %.2f)\n"
+					+ "Text: %d lines, %d words (%d distinct)\n"
+					+ "Measure: %d chars/s\n"
+					+ "Layout: %d layouts/s (%d chars/s)\n"
+					+ "Draw: %d chars/s\n",
+					textSizePx, scaledDensity, poolLines, poolWords, distinctWords,
+					measureCharsPerSecond, layoutsPerSecond, layoutCharsPerSecond,
+					drawCharsPerSecond );
+		}
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// State
+	//////////////////////////////////////////////////////////////////////////
+
+	private final TextPaint mPaint = new TextPaint( TextPaint.ANTI_ALIAS_FLAG );
+	private final int mWidthPx;
+	private final float mScaledDensity;
+
+	private String[] mLines;
+	private char[][] mChars;
+
+	public TextBenchmark( Screen screen ) {
+		mScaledDensity = screen.scaledDensity();
+		mWidthPx = screen.widthPx();
+		mPaint.setTextSize( TEXT_SIZE_SP * mScaledDensity );
+		mPaint.setColor( Color.BLACK );
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Public
+	//////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Run all three phases (a few seconds in total).
+	 */
+	public Result run() {
+		Result result = new Result();
+		result.scaledDensity = mScaledDensity;
+		result.textSizePx = mPaint.getTextSize();
+
+		List<String> vocabulary = vocabulary();
+		result.distinctWords = vocabulary.size();
+		buildPool( vocabulary );
+		result.poolLines = mLines.length;
+		result.poolWords = Math.max( POOL_WORDS, vocabulary.size() );
+
+		result.measureCharsPerSecond = measurePhase();
+
+		long[] layout = layoutPhase();
+		result.layoutsPerSecond = layout[0];
+		result.layoutCharsPerSecond = layout[1];
+
+		result.drawCharsPerSecond = drawPhase();
+		return result;
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Private
+	//////////////////////////////////////////////////////////////////////////
+
+	private long measurePhase() {
+		long chars = 0;
+		int iteration = 0;
+		long start = SystemClock.uptimeMillis();
+		long elapsed;
+		do {
+			char[] text = mChars[iteration++ % mChars.length];
+			mPaint.measureText( text, 0, text.length );
+			chars += text.length;
+			elapsed = SystemClock.uptimeMillis() - start;
+		} while ( elapsed < PHASE_MILLIS );
+		return chars * 1000 / elapsed;
+	}
+
+	private long[] layoutPhase() {
+		long layouts = 0;
+		long chars = 0;
+		int iteration = 0;
+		long start = SystemClock.uptimeMillis();
+		long elapsed;
+		do {
+			String text = mLines[iteration++ % mLines.length];
+			new StaticLayout( text, mPaint, mWidthPx, Layout.Alignment.ALIGN_NORMAL, 1.0f, 0.0f, false );
+			layouts++;
+			chars += text.length();
+			elapsed = SystemClock.uptimeMillis() - start;
+		} while ( elapsed < PHASE_MILLIS );
+		return new long[] { layouts * 1000 / elapsed, chars * 1000 / elapsed };
+	}
+
+	private long drawPhase() {
+		Bitmap bitmap = Bitmap.createBitmap( Math.max( 1, mWidthPx ), CANVAS_HEIGHT, Bitmap.Config.ARGB_8888 );
+		Canvas canvas = new Canvas( bitmap );
+
+		// Lay out the whole pool up front; this phase measures drawing only.
+		StaticLayout[] layouts = new StaticLayout[mLines.length];
+		for ( int i = 0; i < mLines.length; i++ ) {
+			layouts[i] = new StaticLayout( mLines[i], mPaint, mWidthPx,
+					Layout.Alignment.ALIGN_NORMAL, 1.0f, 0.0f, false );
+		}
+
+		long chars = 0;
+		int iteration = 0;
+		long start = SystemClock.uptimeMillis();
+		long elapsed;
+		do {
+			int i = iteration++ % layouts.length;
+			canvas.drawColor( Color.WHITE );
+			layouts[i].draw( canvas );
+			chars += mLines[i].length();
+			elapsed = SystemClock.uptimeMillis() - start;
+		} while ( elapsed < PHASE_MILLIS );
+
+		bitmap.recycle();
+		return chars * 1000 / elapsed;
+	}
+
+	/**
+	 * Distinct real words: the samples, then the name, month and weekday
+	 * names (full and short), AM/PM markers and eras of every locale the
+	 * device provides, each in its own language.
+	 */
+	private static List<String> vocabulary() {
+		Set<String> words = new LinkedHashSet<String>();
+		addWords( words, SAMPLES );
+		for ( Locale locale : Locale.getAvailableLocales() ) {
+			addWords( words, locale.getDisplayName( locale ) );
+			DateFormatSymbols symbols = new DateFormatSymbols( locale );
+			addWords( words, symbols.getMonths() );
+			addWords( words, symbols.getShortMonths() );
+			addWords( words, symbols.getWeekdays() );
+			addWords( words, symbols.getShortWeekdays() );
+			addWords( words, symbols.getAmPmStrings() );
+			addWords( words, symbols.getEras() );
+		}
+		return new ArrayList<String>( words );
+	}
+
+	private static void addWords( Set<String> words, String[] texts ) {
+		for ( String text : texts ) {
+			addWords( words, text );
+		}
+	}
+
+	private static void addWords( Set<String> words, String text ) {
+		for ( String word : text.split( "\\s+" ) ) {
+			if ( word.length() > 0 ) {
+				words.add( word );
+			}
+		}
+	}
+
+	/**
+	 * Shuffle the vocabulary into lines with the samples' word counts, until
+	 * the pool holds POOL_WORDS words (reshuffling if the device has fewer
+	 * distinct words than that).
+	 */
+	private void buildPool( List<String> vocabulary ) {
+		int[] lineWords = new int[SAMPLES.length];
+		for ( int i = 0; i < SAMPLES.length; i++ ) {
+			lineWords[i] = SAMPLES[i].split( "\\s+" ).length;
+		}
+
+		Random random = new Random( SEED );
+		List<String> order = new ArrayList<String>( vocabulary );
+		Collections.shuffle( order, random );
+
+		List<String> lines = new ArrayList<String>();
+		StringBuilder sb = new StringBuilder();
+		int next = 0;
+		int total = Math.max( POOL_WORDS, vocabulary.size() );
+		for ( int used = 0; used < total; ) {
+			sb.setLength( 0 );
+			int count = Math.min( lineWords[lines.size() % lineWords.length], total - used );
+			for ( int w = 0; w < count; w++, used++ ) {
+				if ( next == order.size() ) {
+					Collections.shuffle( order, random );
+					next = 0;
+				}
+				if ( w > 0 ) {
+					sb.append( ' ' );
+				}
+				sb.append( order.get( next++ ) );
+			}
+			lines.add( sb.toString() );
+		}
+
+		mLines = lines.toArray( new String[lines.size()] );
+		mChars = new char[mLines.length][];
+		for ( int i = 0; i < mLines.length; i++ ) {
+			mChars[i] = mLines[i].toCharArray();
+		}
+	}
+}
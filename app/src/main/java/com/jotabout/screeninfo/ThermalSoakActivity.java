@@ -0,0 +1,379 @@
+package com.jotabout.screeninfo;
+
+/**
+ * ScreenInfo
+ *
+ * Display the screen configuration parameters for an Android device.
+ *
+ * Copyright (c) 2011 Michael J. Portuesi (http://www.jotabout.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Locale;
+
+import android.annotation.TargetApi;
+import android.app.Activity;
+import android.content.Context;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.PowerManager;
+import android.view.Choreographer;
+import android.view.View;
+import android.view.WindowManager;
+import android.widget.Button;
+import android.widget.TextView;
+
+/**
+ * Soak test for display cadence under sustained CPU load.
+ *
+ * Worker threads run a duty-cycled synthetic load that steps through
+ * LOAD_LEVELS, spending a fixed time at each, for a number of rounds.
+ * Meanwhile every vsync is sampled from Choreographer and summarized into
+ * one-second windows (achieved fps, janky frames, load level, elapsed
+ * time, and on API 29+ the thermal status), kept in primitive arrays
+ * sized for the whole run up front so that sampling does not allocate.
+ * Runs longer than MAX_RUN_HOURS are refused.  At the end the windows are
+ * reduced to a throttling curve of fps against load and time, which is
+ * shown and added to the report.
+ *
+ * Rotation and window resizes are handled in place (see the manifest) so
+ * that they don't end a run; the report text also survives recreation.
+ *
+ * Optional intent extras: "threads", "step_seconds" and "rounds", e.g.
+ *
+ *   adb shell am start -n com.jotabout.screeninfo/.ThermalSoakActivity --ei step_seconds 60
+ *
+ * Requires Choreographer (API 16).
+ */
+@TargetApi(16)
+public class ThermalSoakActivity extends Activity implements Choreographer.FrameCallback {
+
+	//////////////////////////////////////////////////////////////////////////
+	// Constants
+	//////////////////////////////////////////////////////////////////////////
+
+	public final static String EXTRA_THREADS = "threads";
+	public final static String EXTRA_STEP_SECONDS = "step_seconds";
+	public final static String EXTRA_ROUNDS = "rounds";
+
+	private final static int[] LOAD_LEVELS = { 0, 25, 50, 75, 100 };
+	private final static int DEFAULT_STEP_SECONDS = 30;
+	private final static int DEFAULT_ROUNDS = 2;
+	private final static long WINDOW_NANOS = 1000000000L;
+	private final static int MAX_RUN_HOURS = 24;
+	private final static int THERMAL_UNKNOWN = -1;
+	private final static Object[] NO_ARGS = new Object[0];
+	private final static String STATE_RESULTS = "results";
+
+	//////////////////////////////////////////////////////////////////////////
+	// State
+	//////////////////////////////////////////////////////////////////////////
+
+	private Screen mScreen;
+	private CpuLoad mLoad;
+	private long mStepNanos;
+	private int mRounds;
+	private long mBudgetNanos;
+
+	private PowerManager mPowerManager;
+	private Method mThermalStatus;
+
+	// Samples, one entry per window, sized for the whole run
+	private float[] mWindowFps;
+	private int[] mWindowJanky;
+	private int[] mWindowFrames;
+	private int[] mWindowStep;
+	private int[] mWindowElapsedMillis;
+	private byte[] mWindowThermal;
+	private int mWindowCount;
+
+	private boolean mRunning;
+	private long mRunStartNanos;
+	private long mWindowStartNanos;
+	private long mLastFrameNanos;
+	private int mFrames;
+	private int mJanky;
+	private int mStep = -1;
+
+	private View mSurface;
+	private TextView mStatus;
+	private TextView mResults;
+	private Button mRun;
+
+	//////////////////////////////////////////////////////////////////////////
+	// Activity Lifecycle
+	//////////////////////////////////////////////////////////////////////////
+
+	@Override
+	public void onCreate(Bundle savedInstanceState) {
+		super.onCreate(savedInstanceState);
+		getWindow().addFlags( WindowManager.LayoutParams.FLAG_KEEP_SCREEN_ON );
+		setContentView(R.layout.thermal_soak);
+
+		mScreen = new Screen(this);
+		mBudgetNanos = (long) ( 1e9 / ( mScreen.refreshRate() > 0 ? mScreen.refreshRate() : 60 ) );
+		mLoad = new CpuLoad( getIntent().getIntExtra( EXTRA_THREADS, Runtime.getRuntime().availableProcessors() ) );
+		mStepNanos = Math.max( 1, getIntent().getIntExtra( EXTRA_STEP_SECONDS, DEFAULT_STEP_SECONDS ) ) * 1000000000L;
+		mRounds = Math.max( 1, getIntent().getIntExtra( EXTRA_ROUNDS, DEFAULT_ROUNDS ) );
+
+		// PowerManager#getCurrentThermalStatus, as of Android 10, API 29
+		mPowerManager = (PowerManager) getSystemService( Context.POWER_SERVICE );
+		if ( Build.VERSION.SDK_INT >= 29 ) {
+			try {
+				mThermalStatus = PowerManager.class.getMethod( "getCurrentThermalStatus" );
+			} catch ( Exception ignore ) {
+				mThermalStatus = null;
+			}
+		}
+
+		mSurface = findViewById(R.id.thermal_soak_surface);
+		mStatus = (TextView) findViewById(R.id.thermal_soak_status);
+		mResults = (TextView) findViewById(R.id.thermal_soak_results);
+		mRun = (Button) findViewById(R.id.thermal_soak_run);
+		mRun.setOnClickListener(new View.OnClickListener() {
+			@Override
+			public void onClick(View v) {
+				if ( mRunning ) {
+					finishRun();
+				} else {
+					start();
+				}
+			}
+		});
+
+		if ( savedInstanceState != null ) {
+			mResults.setText( savedInstanceState.getCharSequence( STATE_RESULTS ) );
+		}
+
+		// Windows close on the first vsync after each second, so a run
+		// yields at most one per second plus the final partial one.
+		double runSeconds = (double) mStepNanos * totalSteps() / 1e9;
+		if ( runSeconds > MAX_RUN_HOURS * 3600 ) {
+			mStatus.setText( getString( R.string.thermal_soak_too_long, runSeconds / 3600, MAX_RUN_HOURS ) );
+			mRun.setEnabled( false );
+			return;
+		}
+		int windows = (int) Math.ceil( runSeconds ) + 2;
+		mWindowFps = new float[windows];
+		mWindowJanky = new int[windows];
+		mWindowFrames = new int[windows];
+		mWindowStep = new int[windows];
+		mWindowElapsedMillis = new int[windows];
+		mWindowThermal = new byte[windows];
+
+		mStatus.setText( getString( R.string.thermal_soak_plan, mLoad.threads(),
+				LOAD_LEVELS.length, mStepNanos / 1000000000L, mRounds,
+				totalSteps() * mStepNanos / 60e9f ) );
+	}
+
+	@Override
+	protected void onSaveInstanceState(Bundle outState) {
+		super.onSaveInstanceState(outState);
+		outState.putCharSequence( STATE_RESULTS, mResults.getText() );
+	}
+
+	@Override
+	protected void onPause() {
+		super.onPause();
+		if ( mRunning ) {
+			finishRun();
+		}
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Soak
+	//////////////////////////////////////////////////////////////////////////
+
+	private void start() {
+		mRunning = true;
+		mWindowCount = 0;
+		mFrames = 0;
+		mJanky = 0;
+		mStep = -1;
+		mLastFrameNanos = 0;
+		mRunStartNanos = System.nanoTime();
+		mWindowStartNanos = mRunStartNanos;
+
+		mRun.setText( R.string.thermal_soak_stop );
+		mResults.setText( "" );
+		mLoad.start();
+		setStep( 0 );
+		Choreographer.getInstance().postFrameCallback(this);
+	}
+
+	/**
+	 * Stop the load and sampling, and report what was collected.
+	 */
+	private void finishRun() {
+		mRunning = false;
+		Choreographer.getInstance().removeFrameCallback(this);
+		mLoad.stop();
+		mRun.setText( R.string.thermal_soak_run );
+
+		String report = curve();
+		mResults.setText( report );
+		BenchmarkReports.put( getString( R.string.thermal_soak_title ), report );
+	}
+
+	private void setStep( int step ) {
+		mStep = step;
+		mLoad.setDutyPercent( LOAD_LEVELS[step % LOAD_LEVELS.length] );
+		mStatus.setText( getString( R.string.thermal_soak_step, step / LOAD_LEVELS.length + 1, mRounds,
+				mLoad.dutyPercent(), mLoad.threads() ) );
+	}
+
+	private int totalSteps() {
+		return LOAD_LEVELS.length * mRounds;
+	}
+
+	/**
+	 * Sampling path: runs every vsync and does not allocate, apart from
+	 * the status text when the load level changes (every step_seconds).
+	 */
+	@Override
+	public void doFrame(long frameTimeNanos) {
+		if ( !mRunning ) {
+			return;
+		}
+
+		if ( mLastFrameNanos > 0 ) {
+			mFrames++;
+			if ( frameTimeNanos - mLastFrameNanos > mBudgetNanos + mBudgetNanos / 2 ) {
+				mJanky++;
+			}
+		}
+		mLastFrameNanos = frameTimeNanos;
+
+		if ( frameTimeNanos - mWindowStartNanos >= WINDOW_NANOS ) {
+			closeWindow( frameTimeNanos );
+
+			int step = (int) ( ( frameTimeNanos - mRunStartNanos ) / mStepNanos );
+			if ( step >= totalSteps() ) {
+				finishRun();
+				return;
+			}
+			if ( step != mStep ) {
+				setStep( step );
+			}
+		}
+
+		// Keep drawing so the display pipeline is exercised every frame
+		mSurface.invalidate();
+		Choreographer.getInstance().postFrameCallback(this);
+	}
+
+	private void closeWindow( long nowNanos ) {
+		// Sized for the run in onCreate; the check only guards against a
+		// vsync arriving after the last step has already ended.
+		if ( mWindowCount < mWindowFps.length ) {
+			int i = mWindowCount++;
+			mWindowFps[i] = mFrames * 1e9f / ( nowNanos - mWindowStartNanos );
+			mWindowFrames[i] = mFrames;
+			mWindowJanky[i] = mJanky;
+			mWindowStep[i] = mStep;
+			mWindowElapsedMillis[i] = (int) ( ( nowNanos - mRunStartNanos ) / 1000000L );
+			mWindowThermal[i] = (byte) thermalStatus();
+		}
+
+		mWindowStartNanos = nowNanos;
+		mFrames = 0;
+		mJanky = 0;
+	}
+
+	/**
+	 * Current thermal status, or THERMAL_UNKNOWN.  The boxed result is one
+	 * of the small cached Integers, so this doesn't allocate either.
+	 */
+	private int thermalStatus() {
+		if ( mThermalStatus == null ) {
+			return THERMAL_UNKNOWN;
+		}
+		try {
+			return (Integer) mThermalStatus.invoke( mPowerManager, NO_ARGS );
+		} catch ( Exception e ) {
+			mThermalStatus = null;
+			return THERMAL_UNKNOWN;
+		}
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Report
+	//////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Reduce the windows to one row per load step: achieved fps (mean and
+	 * worst window), janky frames and peak thermal status, then compare
+	 * each load level's first and last round.
+	 */
+	private String curve() {
+		int steps = totalSteps();
+		double[] fpsSum = new double[steps];
+		float[] fpsMin = new float[steps];
+		int[] windows = new int[steps];
+		int[] frames = new int[steps];
+		int[] janky = new int[steps];
+		int[] thermal = new int[steps];
+		int[] endMillis = new int[steps];
+		Arrays.fill( fpsMin, Float.MAX_VALUE );
+		Arrays.fill( thermal, THERMAL_UNKNOWN );
+
+		for ( int i = 0; i < mWindowCount; i++ ) {
+			int step = mWindowStep[i];
+			fpsSum[step] += mWindowFps[i];
+			fpsMin[step] = Math.min( fpsMin[step], mWindowFps[i] );
+			windows[step]++;
+			frames[step] += mWindowFrames[i];
+			janky[step] += mWindowJanky[i];
+			thermal[step] = Math.max( thermal[step], mWindowThermal[i] );
+			endMillis[step] = mWindowElapsedMillis[i];
+		}
+
+		StringBuilder sb = new StringBuilder();
+		sb.append( String.format( Locale.US, "%d threads, %d s per step, nominal %.1f fps\n",
+				mLoad.threads(), mStepNanos / 1000000000L, mScreen.refreshRate() ) );
+		sb.append( "Round Load  Time   fps  min fps  janky  thermal\n" );
+		for ( int s = 0; s < steps; s++ ) {
+			if ( windows[s] == 0 ) {
+				continue;
+			}
+			sb.append( String.format( Locale.US, "%5d %3d%% %4ds %5.1f %8.1f %5.1f%% %8s\n",
+					s / LOAD_LEVELS.length + 1, LOAD_LEVELS[s % LOAD_LEVELS.length], endMillis[s] / 1000,
+					fpsSum[s] / windows[s], fpsMin[s],
+					frames[s] == 0 ? 0.0 : 100.0 * janky[s] / frames[s],
+					thermal[s] == THERMAL_UNKNOWN ? "-" : Integer.toString( thermal[s] ) ) );
+		}
+
+		// Same load, first round vs last: a drop suggests throttling over time
+		int last = ( mRounds - 1 ) * LOAD_LEVELS.length;
+		if ( mRounds > 1 ) {
+			for ( int l = 0; l < LOAD_LEVELS.length; l++ ) {
+				if ( windows[l] > 0 && windows[last + l] > 0 ) {
+					double before = fpsSum[l] / windows[l];
+					double after = fpsSum[last + l] / windows[last + l];
+					sb.append( String.format( Locale.US, "Load %3d%%: %.1f -> %.1f fps (%+.1f%%)\n",
+							LOAD_LEVELS[l], before, after, 100.0 * ( after - before ) / before ) );
+				}
+			}
+		}
+		return sb.toString();
+	}
+}
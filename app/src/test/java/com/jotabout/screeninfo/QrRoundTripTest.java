@@ -0,0 +1,381 @@
+package com.jotabout.screeninfo;
+
+/**
+ * ScreenInfo
+ *
+ * Display the screen configuration parameters for an Android device.
+ *
+ * Copyright (c) 2011 Michael J. Portuesi (http://www.jotabout.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import android.os.Build;
+
+/**
+ * Encodes payloads with QrEncoder and reads them back with an independent
+ * reader: format information is matched against all 32 BCH codewords,
+ * function modules are located from the spec's tables, every Reed-Solomon
+ * block must have zero syndromes, and the byte-mode segment must return the
+ * original payload.  A live Screen snapshot is then carried through
+ * SnapshotCodec and a symbol and back.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class QrRoundTripTest {
+
+	// Level M, indexed by version (index 0 unused)
+	private final static int[] RAW_CODEWORDS = { 0, 26, 44, 70, 100, 134, 172, 196, 242, 292, 346 };
+	private final static int[] ECC_PER_BLOCK = { 0, 10, 16, 26, 18, 24, 16, 18, 22, 22, 26 };
+	private final static int[] BLOCKS = { 0, 1, 1, 1, 2, 2, 4, 4, 4, 5, 5 };
+	private final static int[][] ALIGNMENT = {
+		{}, {}, { 6, 18 }, { 6, 22 }, { 6, 26 }, { 6, 30 }, { 6, 34 },
+		{ 6, 22, 38 }, { 6, 24, 42 }, { 6, 26, 46 }, { 6, 28, 50 },
+	};
+
+	private final static int[] EXP = new int[512];
+	private final static int[] LOG = new int[256];
+	static {
+		int x = 1;
+		for ( int i = 0; i < 255; i++ ) {
+			EXP[i] = x;
+			LOG[x] = i;
+			x <<= 1;
+			if ( x >= 0x100 ) {
+				x ^= 0x11D;
+			}
+		}
+		for ( int i = 255; i < 512; i++ ) {
+			EXP[i] = EXP[i - 255];
+		}
+	}
+
+	@Test
+	public void everyPayloadLengthRoundTrips() {
+		QrEncoder encoder = new QrEncoder();
+		Random random = new Random( 18004 );
+		int lastVersion = 1;
+		for ( int length = 0; length <= QrEncoder.maxPayload(); length++ ) {
+			byte[] payload = new byte[length];
+			random.nextBytes( payload );
+
+			encoder.encode( payload, length );
+			assertTrue( "version never shrinks", encoder.version() >= lastVersion );
+			lastVersion = encoder.version();
+
+			assertArrayEquals( "length " + length, payload, read( encoder ) );
+		}
+		assertEquals( QrEncoder.MAX_VERSION, lastVersion );
+	}
+
+	@Test
+	public void oversizedPayloadIsRejected() {
+		int length = QrEncoder.maxPayload() + 1;
+		try {
+			new QrEncoder().encode( new byte[length], length );
+			fail( "expected IllegalArgumentException" );
+		} catch ( IllegalArgumentException expected ) {
+		}
+	}
+
+	@Test
+	public void snapshotRoundTripsThroughSymbol() {
+		assertTrue( SnapshotCodec.MAX_LENGTH <= QrEncoder.maxPayload() );
+
+		Screen screen = new Screen( RuntimeEnvironment.application );
+		byte[] buffer = new byte[SnapshotCodec.MAX_LENGTH];
+		int length = SnapshotCodec.encode( screen, buffer );
+		QrEncoder encoder = new QrEncoder();
+		encoder.encode( buffer, length );
+
+		byte[] scanned = read( encoder );
+		assertEquals( length, scanned.length );
+		SnapshotCodec.Snapshot s = SnapshotCodec.decode( scanned, scanned.length );
+
+		assertEquals( Build.VERSION.SDK_INT, s.apiLevel );
+		assertEquals( screen.realWidthPx(), s.realWidthPx );
+		assertEquals( screen.realHeightPx(), s.realHeightPx );
+		assertEquals( screen.widthPx(), s.widthPx );
+		assertEquals( screen.heightPx(), s.heightPx );
+		assertEquals( screen.widthDp(), s.widthDp );
+		assertEquals( screen.heightDp(), s.heightDp );
+		assertEquals( screen.smallestDp(), s.smallestDp );
+		assertEquals( screen.densityDpi(), s.densityDpi );
+		assertEquals( screen.pixelFormat(), s.pixelFormat );
+		assertEquals( screen.xdpi(), s.xdpi, 0.0f );
+		assertEquals( screen.ydpi(), s.ydpi, 0.0f );
+		assertEquals( (float) screen.density(), s.density, 0.0f );
+		assertEquals( screen.scaledDensity(), s.scaledDensity, 0.0f );
+		assertEquals( screen.refreshRate(), s.refreshRate, 0.0f );
+		assertEquals( screen.sizeClassification() & 0xFF, s.sizeClassification );
+		assertEquals( screen.screenLayout() & 0xFF, s.screenLayout );
+		assertEquals( screen.touchScreen() & 0xFF, s.touchScreen );
+		assertEquals( screen.defaultOrientation() & 0xFF, s.defaultOrientation );
+		assertEquals( screen.deviceModel(), s.deviceModel );
+		assertEquals( screen.androidVersion(), s.androidVersion );
+
+		try {
+			SnapshotCodec.decode( scanned, scanned.length - 1 );
+			fail( "expected IllegalArgumentException for truncated data" );
+		} catch ( IllegalArgumentException expected ) {
+		}
+	}
+
+	//////////////////////////////////////////////////////////////////////////
+	// Reader
+	//////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Read the byte-mode payload back out of the encoder's last symbol.
+	 */
+	private static byte[] read( QrEncoder symbol ) {
+		int size = symbol.size();
+		int version = ( size - 17 ) / 4;
+		assertEquals( symbol.version(), version );
+		checkFinders( symbol, size );
+
+		// Format information: both copies, level M, a valid BCH codeword
+		int first = 0;
+		int second = 0;
+		for ( int i = 0; i <= 5; i++ ) {
+			first |= bit( symbol, 8, i ) << i;
+		}
+		first |= bit( symbol, 8, 7 ) << 6;
+		first |= bit( symbol, 8, 8 ) << 7;
+		first |= bit( symbol, 7, 8 ) << 8;
+		for ( int i = 9; i < 15; i++ ) {
+			first |= bit( symbol, 14 - i, 8 ) << i;
+		}
+		for ( int i = 0; i < 8; i++ ) {
+			second |= bit( symbol, size - 1 - i, 8 ) << i;
+		}
+		for ( int i = 8; i < 15; i++ ) {
+			second |= bit( symbol, 8, size - 15 + i ) << i;
+		}
+		assertEquals( "format copies differ", first, second );
+		assertTrue( "dark module", symbol.isDark( 8, size - 8 ) );
+
+		int format = -1;
+		for ( int data = 0; data < 32; data++ ) {
+			if ( ( bch( data, 5, 0x537 ) ^ 0x5412 ) == first ) {
+				format = data;
+			}
+		}
+		assertTrue( "format bits are not a BCH codeword", format >= 0 );
+		assertEquals( "error correction level M", 0, format >> 3 );
+		int mask = format & 7;
+
+		if ( version >= 7 ) {
+			int bits = 0;
+			for ( int i = 0; i < 18; i++ ) {
+				int a = size - 11 + i % 3;
+				int b = i / 3;
+				assertEquals( bit( symbol, a, b ), bit( symbol, b, a ) );
+				bits |= bit( symbol, a, b ) << i;
+			}
+			assertEquals( "version information", bch( version, 6, 0x1F25 ), bits );
+		}
+
+		// Codewords, in the zigzag placement order
+		int raw = RAW_CODEWORDS[version];
+		int[] codewords = new int[raw];
+		int count = 0;
+		for ( int right = size - 1; right >= 1; right -= 2 ) {
+			if ( right == 6 ) {
+				right = 5;
+			}
+			boolean upward = ( ( right + 1 ) & 2 ) == 0;
+			for ( int vert = 0; vert < size; vert++ ) {
+				int y = upward ? size - 1 - vert : vert;
+				for ( int j = 0; j < 2; j++ ) {
+					int x = right - j;
+					if ( isFunction( version, size, x, y ) || count >= raw * 8 ) {
+						continue;
+					}
+					int dark = bit( symbol, x, y ) ^ ( masked( mask, x, y ) ? 1 : 0 );
+					codewords[count >> 3] |= dark << ( 7 - ( count & 7 ) );
+					count++;
+				}
+			}
+		}
+		assertEquals( raw * 8, count );
+
+		// De-interleave, check each block, and gather the data codewords
+		int blocks = BLOCKS[version];
+		int ecc = ECC_PER_BLOCK[version];
+		int shortBlocks = blocks - raw % blocks;
+		int shortLength = raw / blocks;
+		int[][] block = new int[blocks][];
+		int dataLength = 0;
+		for ( int b = 0; b < blocks; b++ ) {
+			block[b] = new int[shortLength + ( b < shortBlocks ? 0 : 1 )];
+			dataLength += block[b].length - ecc;
+		}
+		int k = 0;
+		for ( int i = 0; i < shortLength + 1 - ecc; i++ ) {
+			for ( int b = 0; b < blocks; b++ ) {
+				if ( i < block[b].length - ecc ) {
+					block[b][i] = codewords[k++];
+				}
+			}
+		}
+		for ( int i = 0; i < ecc; i++ ) {
+			for ( int b = 0; b < blocks; b++ ) {
+				block[b][block[b].length - ecc + i] = codewords[k++];
+			}
+		}
+		assertEquals( raw, k );
+
+		int[] data = new int[dataLength];
+		int d = 0;
+		for ( int b = 0; b < blocks; b++ ) {
+			for ( int i = 0; i < ecc; i++ ) {
+				assertEquals( "syndrome " + i + " of block " + b, 0, evaluate( block[b], EXP[i] ) );
+			}
+			for ( int i = 0; i < block[b].length - ecc; i++ ) {
+				data[d++] = block[b][i];
+			}
+		}
+
+		// Byte-mode segment
+		int[] cursor = { 0 };
+		assertEquals( "byte mode", 0x4, take( data, cursor, 4 ) );
+		int length = take( data, cursor, version <= 9 ? 8 : 16 );
+		byte[] payload = new byte[length];
+		for ( int i = 0; i < length; i++ ) {
+			payload[i] = (byte) take( data, cursor, 8 );
+		}
+		return payload;
+	}
+
+	private static void checkFinders( QrEncoder symbol, int size ) {
+		int[][] corners = { { 3, 3 }, { size - 4, 3 }, { 3, size - 4 } };
+		for ( int[] c : corners ) {
+			for ( int dy = -3; dy <= 3; dy++ ) {
+				for ( int dx = -3; dx <= 3; dx++ ) {
+					boolean dark = Math.max( Math.abs( dx ), Math.abs( dy ) ) != 2;
+					assertEquals( dark, symbol.isDark( c[0] + dx, c[1] + dy ) );
+				}
+			}
+		}
+		for ( int i = 8; i < size - 8; i++ ) {
+			assertEquals( "timing", i % 2 == 0, symbol.isDark( i, 6 ) );
+			assertEquals( "timing", i % 2 == 0, symbol.isDark( 6, i ) );
+		}
+	}
+
+	private static boolean isFunction( int version, int size, int x, int y ) {
+		if ( x == 6 || y == 6 ) {
+			return true;
+		}
+		// Finders, separators and format information
+		if ( ( x < 9 && y < 9 ) || ( x >= size - 8 && y < 9 ) || ( x < 9 && y >= size - 8 ) ) {
+			return true;
+		}
+		if ( version >= 7 && ( ( x >= size - 11 && x < size - 8 && y < 6 )
+				|| ( y >= size - 11 && y < size - 8 && x < 6 ) ) ) {
+			return true;
+		}
+		int[] centers = ALIGNMENT[version];
+		int last = centers.length - 1;
+		for ( int i = 0; i < centers.length; i++ ) {
+			for ( int j = 0; j < centers.length; j++ ) {
+				if ( ( i == 0 && j == 0 ) || ( i == 0 && j == last ) || ( i == last && j == 0 ) ) {
+					continue;
+				}
+				if ( Math.abs( x - centers[i] ) <= 2 && Math.abs( y - centers[j] ) <= 2 ) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static boolean masked( int mask, int x, int y ) {
+		// ISO/IEC 18004 table 10, with i = row and j = column
+		int i = y;
+		int j = x;
+		switch ( mask ) {
+		case 0:  return ( i + j ) % 2 == 0;
+		case 1:  return i % 2 == 0;
+		case 2:  return j % 3 == 0;
+		case 3:  return ( i + j ) % 3 == 0;
+		case 4:  return ( i / 2 + j / 3 ) % 2 == 0;
+		case 5:  return ( i * j ) % 2 + ( i * j ) % 3 == 0;
+		case 6:  return ( ( i * j ) % 2 + ( i * j ) % 3 ) % 2 == 0;
+		default: return ( ( i + j ) % 2 + ( i * j ) % 3 ) % 2 == 0;
+		}
+	}
+
+	/**
+	 * Value of the codeword polynomial (highest degree first) at x.
+	 */
+	private static int evaluate( int[] codewords, int x ) {
+		int result = 0;
+		for ( int c : codewords ) {
+			result = multiply( result, x ) ^ c;
+		}
+		return result;
+	}
+
+	private static int multiply( int a, int b ) {
+		return a == 0 || b == 0 ? 0 : EXP[LOG[a] + LOG[b]];
+	}
+
+	/**
+	 * data followed by its BCH remainder for the given generator.
+	 */
+	private static int bch( int data, int dataBits, int generator ) {
+		int degree = 31 - Integer.numberOfLeadingZeros( generator );
+		int value = data << degree;
+		for ( int i = dataBits + degree - 1; i >= degree; i-- ) {
+			if ( ( ( value >>> i ) & 1 ) != 0 ) {
+				value ^= generator << ( i - degree );
+			}
+		}
+		return data << degree | value;
+	}
+
+	private static int take( int[] data, int[] cursor, int count ) {
+		int value = 0;
+		for ( int i = 0; i < count; i++, cursor[0]++ ) {
+			int b = data[cursor[0] >> 3];
+			value = value << 1 | ( ( b >> ( 7 - ( cursor[0] & 7 ) ) ) & 1 );
+		}
+		return value;
+	}
+
+	private static int bit( QrEncoder symbol, int x, int y ) {
+		return symbol.isDark( x, y ) ? 1 : 0;
+	}
+}
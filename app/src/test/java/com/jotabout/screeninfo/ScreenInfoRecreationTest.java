@@ -0,0 +1,121 @@
+package com.jotabout.screeninfo;
+
+/**
+ * ScreenInfo
+ *
+ * Display the screen configuration parameters for an Android device.
+ *
+ * Copyright (c) 2011 Michael J. Portuesi (http://www.jotabout.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.Shadows;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.annotation.Config;
+
+import android.content.res.Configuration;
+
+/**
+ * Recreates ScreenInfo through repeated rotation, locale and font-scale
+ * changes on a plain JVM, exercising the about dialog and the scroll
+ * benchmark's frame callback in each instance.  Every replaced activity is
+ * tracked weakly and must be collectable at the end, and post-GC heap must
+ * not keep growing after the first window of cycles.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class ScreenInfoRecreationTest {
+
+	private final static int CYCLES = 200;
+	private final static int WINDOW = 20;
+	private final static long HEAP_GROWTH_KB = 8 * 1024;
+
+	@Test
+	public void recreationReleasesOldActivities() {
+		ActivityController<ScreenInfo> controller = Robolectric.buildActivity( ScreenInfo.class )
+				.create().start().postCreate( null ).resume().visible();
+		Configuration base = new Configuration( RuntimeEnvironment.application.getResources().getConfiguration() );
+
+		List<WeakReference<ScreenInfo>> replaced = new ArrayList<WeakReference<ScreenInfo>>();
+		long[] heapKb = new long[CYCLES];
+		long firstWindowKb = 0;
+
+		for ( int i = 0; i < CYCLES; i++ ) {
+			ScreenInfo activity = controller.get();
+			Shadows.shadowOf( activity ).clickMenuItem( ScreenInfo.MENU_ABOUT );
+			Shadows.shadowOf( activity ).clickMenuItem( ScreenInfo.MENU_SCROLL_BENCHMARK );
+			replaced.add( new WeakReference<ScreenInfo>( activity ) );
+
+			// Every cycle changes orientation (and cycle 0 the font scale), so
+			// each one recreates the activity
+			controller.configurationChange( ConfigurationStress.variant( base, i ) );
+			assertNotSame( "activity was not recreated", activity, controller.get() );
+			activity = null;
+
+			heapKb[i] = currentHeapKb();
+			if ( i + 1 == WINDOW ) {
+				firstWindowKb = usedHeapKb();
+			}
+		}
+		long lastWindowKb = usedHeapKb();
+
+		int retained = 0;
+		for ( WeakReference<ScreenInfo> ref : replaced ) {
+			if ( ref.get() != null ) {
+				retained++;
+			}
+		}
+		long peakKb = 0;
+		for ( long kb : heapKb ) {
+			peakKb = Math.max( peakKb, kb );
+		}
+
+		assertEquals( "replaced activities still reachable", 0, retained );
+		assertTrue( "heap grew from " + firstWindowKb + " KB to " + lastWindowKb + " KB (peak " + peakKb + " KB)",
+				lastWindowKb - firstWindowKb < HEAP_GROWTH_KB );
+	}
+
+	private static long usedHeapKb() {
+		Runtime runtime = Runtime.getRuntime();
+		for ( int i = 0; i < 3; i++ ) {
+			runtime.gc();
+			runtime.runFinalization();
+		}
+		return currentHeapKb();
+	}
+
+	private static long currentHeapKb() {
+		Runtime runtime = Runtime.getRuntime();
+		return ( runtime.totalMemory() - runtime.freeMemory() ) / 1024;
+	}
+}
@@ -0,0 +1,261 @@
+/**
+ * ScreenInfo
+ *
+ * Display the screen configuration parameters for an Android device.
+ *
+ * Copyright (c) 2011 Michael J. Portuesi (http://www.jotabout.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Compiles master_assets/devices.csv into the binary reference database
+ * read by com.jotabout.screeninfo.DeviceDatabase.  Run from the project root:
+ *
+ *   javac -d build/tools tools/DeviceDatabaseBuilder.java
+ *   java -cp build/tools DeviceDatabaseBuilder master_assets/devices.csv app/src/main/assets/devices.bin
+ *
+ * The file format and hash function must stay in step with DeviceDatabase.
+ */
+public class DeviceDatabaseBuilder {
+
+	private final static int MAGIC = 0x53494442;	// "SIDB"
+	private final static int VERSION = 1;
+	private final static int HEADER_SIZE = 32;
+	private final static int RECORD_SIZE = 24;
+	private final static int MAX_DISPLACEMENT = 1 << 20;
+
+	private static class Panel {
+		String model;
+		int shortPx;
+		int longPx;
+		float diagonal;
+		float dpi;
+		int nameOffset;
+	}
+
+	public static void main( String[] args ) throws IOException {
+		if ( args.length != 2 ) {
+			System.err.println( "usage: DeviceDatabaseBuilder <devices.csv> <devices.bin>" );
+			System.exit( 1 );
+		}
+
+		List<Panel> panels = read( args[0] );
+		write( panels, args[1] );
+		System.out.println( "Wrote " + panels.size() + " panels to " + args[1] );
+	}
+
+	private static List<Panel> read( String path ) throws IOException {
+		List<Panel> panels = new ArrayList<Panel>();
+		HashSet<String> models = new HashSet<String>();
+		BufferedReader in = new BufferedReader( new InputStreamReader( new FileInputStream( path ), "UTF-8" ) );
+		try {
+			String line;
+			int lineNumber = 0;
+			while ( ( line = in.readLine() ) != null ) {
+				lineNumber++;
+				line = line.trim();
+				if ( line.length() == 0 || line.startsWith( "#" ) ) {
+					continue;
+				}
+
+				String[] cols = line.split( "," );
+				if ( cols.length != 5 ) {
+					throw new IOException( path + ":" + lineNumber + ": expected 5 columns" );
+				}
+				Panel p = new Panel();
+				p.model = cols[0].trim();
+				int w = Integer.parseInt( cols[1].trim() );
+				int h = Integer.parseInt( cols[2].trim() );
+				p.shortPx = Math.min( w, h );
+				p.longPx = Math.max( w, h );
+				p.diagonal = Float.parseFloat( cols[3].trim() );
+				p.dpi = Float.parseFloat( cols[4].trim() );
+				if ( !models.add( p.model ) ) {
+					throw new IOException( path + ":" + lineNumber + ": duplicate model " + p.model );
+				}
+				panels.add( p );
+			}
+		} finally {
+			in.close();
+		}
+
+		Collections.sort( panels, new Comparator<Panel>() {
+			@Override
+			public int compare( Panel a, Panel b ) {
+				if ( a.shortPx != b.shortPx ) {
+					return a.shortPx < b.shortPx ? -1 : 1;
+				}
+				if ( a.longPx != b.longPx ) {
+					return a.longPx < b.longPx ? -1 : 1;
+				}
+				return Float.compare( a.diagonal, b.diagonal );
+			}
+		} );
+		return panels;
+	}
+
+	private static void write( List<Panel> panels, String path ) throws IOException {
+		int n = panels.size();
+		int buckets = Math.max( 1, ( n + 1 ) / 2 );
+		int[] displacements = new int[buckets];
+		int[] slots = buildPerfectHash( panels, buckets, displacements );
+
+		int nameChars = 0;
+		for ( Panel p : panels ) {
+			p.nameOffset = nameChars;
+			nameChars += p.model.length();
+		}
+
+		int recordsOffset = HEADER_SIZE;
+		int displacementOffset = recordsOffset + n * RECORD_SIZE;
+		int slotsOffset = displacementOffset + buckets * 4;
+		int namesOffset = slotsOffset + n * 4;
+
+		DataOutputStream out = new DataOutputStream( new FileOutputStream( path ) );
+		try {
+			out.writeInt( MAGIC );
+			out.writeInt( VERSION );
+			out.writeInt( n );
+			out.writeInt( buckets );
+			out.writeInt( recordsOffset );
+			out.writeInt( displacementOffset );
+			out.writeInt( slotsOffset );
+			out.writeInt( namesOffset );
+
+			for ( Panel p : panels ) {
+				out.writeInt( p.shortPx );
+				out.writeInt( p.longPx );
+				out.writeFloat( p.diagonal );
+				out.writeFloat( p.dpi );
+				out.writeInt( p.nameOffset );
+				out.writeShort( p.model.length() );
+				out.writeShort( 0 );
+			}
+			for ( int d : displacements ) {
+				out.writeInt( d );
+			}
+			for ( int s : slots ) {
+				out.writeInt( s );
+			}
+			for ( Panel p : panels ) {
+				out.writeChars( p.model );
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Hash-and-displace: place the largest buckets first, searching for a
+	 * displacement that puts every key of the bucket into a free slot.
+	 */
+	private static int[] buildPerfectHash( List<Panel> panels, int buckets, int[] displacements )
+			throws IOException {
+		int n = panels.size();
+		final List<List<Integer>> byBucket = new ArrayList<List<Integer>>();
+		for ( int b = 0; b < buckets; b++ ) {
+			byBucket.add( new ArrayList<Integer>() );
+		}
+		for ( int i = 0; i < n; i++ ) {
+			byBucket.get( bucket( hash( panels.get( i ).model, 0 ), buckets ) ).add( i );
+		}
+
+		Integer[] order = new Integer[buckets];
+		for ( int b = 0; b < buckets; b++ ) {
+			order[b] = b;
+		}
+		Arrays.sort( order, new Comparator<Integer>() {
+			@Override
+			public int compare( Integer a, Integer b ) {
+				return byBucket.get( b ).size() - byBucket.get( a ).size();
+			}
+		} );
+
+		int[] slots = new int[n];
+		Arrays.fill( slots, -1 );
+		for ( int b : order ) {
+			List<Integer> keys = byBucket.get( b );
+			if ( keys.isEmpty() ) {
+				break;
+			}
+
+			int[] trial = new int[keys.size()];
+			boolean placed = false;
+			for ( int d = 1; d < MAX_DISPLACEMENT && !placed; d++ ) {
+				placed = true;
+				for ( int j = 0; j < keys.size() && placed; j++ ) {
+					trial[j] = bucket( hash( panels.get( keys.get( j ) ).model, d ), n );
+					if ( slots[trial[j]] != -1 ) {
+						placed = false;
+					}
+					for ( int m = 0; m < j && placed; m++ ) {
+						if ( trial[m] == trial[j] ) {
+							placed = false;
+						}
+					}
+				}
+				if ( placed ) {
+					displacements[b] = d;
+					for ( int j = 0; j < keys.size(); j++ ) {
+						slots[trial[j]] = keys.get( j );
+					}
+				}
+			}
+			if ( !placed ) {
+				throw new IOException( "Unable to build perfect hash" );
+			}
+		}
+		return slots;
+	}
+
+	// Must match DeviceDatabase.hash() and DeviceDatabase.bucket().
+	private static int hash( CharSequence key, int seed ) {
+		int h = 0x811C9DC5 ^ ( seed * 0x9E3779B9 );
+		int length = key.length();
+		for ( int i = 0; i < length; i++ ) {
+			h ^= key.charAt( i );
+			h *= 0x01000193;
+		}
+		// Final avalanche so that every seed yields an independent slot.
+		h ^= h >>> 16;
+		h *= 0x85EBCA6B;
+		h ^= h >>> 13;
+		h *= 0xC2B2AE35;
+		h ^= h >>> 16;
+		return h;
+	}
+
+	private static int bucket( int hash, int size ) {
+		return ( hash & 0x7FFFFFFF ) % size;
+	}
+}
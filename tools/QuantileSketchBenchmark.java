@@ -0,0 +1,171 @@
+/**
+ * ScreenInfo
+ *
+ * Display the screen configuration parameters for an Android device.
+ *
+ * Copyright (c) 2011 Michael J. Portuesi (http://www.jotabout.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+import com.jotabout.screeninfo.QuantileSketch;
+
+/**
+ * Measures the accuracy, memory and speed of QuantileSketch against exact
+ * sorting, for synthetic fleet-like distributions, both streamed into one
+ * sketch and merged from many partial sketches.  Run from the project root:
+ *
+ *   javac -d build/tools -sourcepath app/src/main/java tools/QuantileSketchBenchmark.java
+ *   java -cp build/tools QuantileSketchBenchmark [records]
+ *
+ * Rank error is the worst distance, over the 1st to 99th percentiles,
+ * between the requested quantile and the exact rank range of the value
+ * returned, as a fraction of the stream.
+ */
+public class QuantileSketchBenchmark {
+
+	private final static int[] KS = { 50, 100, 200, 400 };
+	private final static int PARTIALS = 64;
+	private final static long SEED = 42;
+
+	private interface Distribution {
+		String name();
+		double next( Random random );
+	}
+
+	public static void main( String[] args ) throws IOException {
+		int n = args.length > 0 ? Integer.parseInt( args[0] ) : 1000000;
+
+		Distribution[] distributions = {
+			// Phones around 6", tablets around 10"
+			new Distribution() {
+				public String name() { return "diagonal"; }
+				public double next( Random r ) {
+					return r.nextInt( 5 ) == 0 ? 10.0 + r.nextGaussian() * 1.2 : 6.1 + r.nextGaussian() * 0.4;
+				}
+			},
+			// Long-tailed physical dpi
+			new Distribution() {
+				public String name() { return "xdpi"; }
+				public double next( Random r ) {
+					return Math.exp( Math.log( 400 ) + r.nextGaussian() * 0.25 );
+				}
+			},
+			// A few discrete rates, heavily tied
+			new Distribution() {
+				public String name() { return "refresh"; }
+				public double next( Random r ) {
+					int p = r.nextInt( 100 );
+					return p < 55 ? 60 : p < 75 ? 90 : p < 97 ? 120 : 144;
+				}
+			},
+		};
+
+		System.out.println( String.format( Locale.US, "%d records, %d partial sketches for merge", n, PARTIALS ) );
+		System.out.println( String.format( Locale.US, "%-9s %5s %9s %9s %10s %10s %10s",
+				"data", "k", "retained", "bytes", "rank err", "merge err", "Mvalues/s" ) );
+
+		for ( Distribution distribution : distributions ) {
+			Random random = new Random( SEED );
+			double[] data = new double[n];
+			for ( int i = 0; i < n; i++ ) {
+				data[i] = distribution.next( random );
+			}
+			double[] sorted = data.clone();
+			Arrays.sort( sorted );
+
+			for ( int k : KS ) {
+				// Warm up, then time a single streamed sketch
+				fill( new QuantileSketch( k ), data, 0, Math.min( n, 100000 ) );
+				QuantileSketch single = new QuantileSketch( k );
+				long start = System.nanoTime();
+				fill( single, data, 0, n );
+				double seconds = ( System.nanoTime() - start ) / 1e9;
+
+				QuantileSketch merged = new QuantileSketch( k );
+				for ( int p = 0; p < PARTIALS; p++ ) {
+					QuantileSketch partial = new QuantileSketch( k );
+					fill( partial, data, (int) ( (long) n * p / PARTIALS ), (int) ( (long) n * ( p + 1 ) / PARTIALS ) );
+					merged.merge( partial );
+				}
+
+				System.out.println( String.format( Locale.US, "%-9s %5d %9d %9d %9.4f%% %9.4f%% %10.1f",
+						distribution.name(), k, single.retained(), serializedSize( single ),
+						100 * rankError( single, sorted ), 100 * rankError( merged, sorted ),
+						n / seconds / 1e6 ) );
+			}
+		}
+	}
+
+	private static void fill( QuantileSketch sketch, double[] data, int from, int to ) {
+		for ( int i = from; i < to; i++ ) {
+			sketch.add( data[i] );
+		}
+	}
+
+	private static int serializedSize( QuantileSketch sketch ) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		sketch.write( new DataOutputStream( bytes ) );
+		return bytes.size();
+	}
+
+	private static double rankError( QuantileSketch sketch, double[] sorted ) {
+		double[] qs = new double[99];
+		for ( int i = 0; i < qs.length; i++ ) {
+			qs[i] = ( i + 1 ) / 100.0;
+		}
+		double[] estimates = sketch.quantiles( qs );
+
+		double worst = 0;
+		for ( int i = 0; i < qs.length; i++ ) {
+			double low = (double) lowerBound( sorted, estimates[i] ) / sorted.length;
+			double high = (double) upperBound( sorted, estimates[i] ) / sorted.length;
+			double error = qs[i] < low ? low - qs[i] : qs[i] > high ? qs[i] - high : 0;
+			worst = Math.max( worst, error );
+		}
+		return worst;
+	}
+
+	/** Number of values strictly less than v. */
+	private static int lowerBound( double[] sorted, double v ) {
+		int lo = 0, hi = sorted.length;
+		while ( lo < hi ) {
+			int mid = ( lo + hi ) >>> 1;
+			if ( sorted[mid] < v ) lo = mid + 1; else hi = mid;
+		}
+		return lo;
+	}
+
+	/** Number of values less than or equal to v. */
+	private static int upperBound( double[] sorted, double v ) {
+		int lo = 0, hi = sorted.length;
+		while ( lo < hi ) {
+			int mid = ( lo + hi ) >>> 1;
+			if ( sorted[mid] <= v ) lo = mid + 1; else hi = mid;
+		}
+		return lo;
+	}
+}